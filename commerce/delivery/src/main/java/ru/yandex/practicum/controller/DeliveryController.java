@@ -5,9 +5,12 @@ import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.client.DeliveryClient;
 import ru.yandex.practicum.delivery.DeliveryDto;
 import ru.yandex.practicum.delivery.NewDeliveryRequestDto;
+import ru.yandex.practicum.idempotency.Idempotent;
 import ru.yandex.practicum.order.OrderDto;
 import ru.yandex.practicum.service.DeliveryService;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -19,7 +22,8 @@ public class DeliveryController implements DeliveryClient {
 
     @Override
     @PutMapping
-    public DeliveryDto createDelivery(@RequestBody NewDeliveryRequestDto request) {
+    public DeliveryDto createDelivery(@RequestBody NewDeliveryRequestDto request,
+                                      @RequestHeader(name = Idempotent.HEADER, required = false) String idempotencyKey) {
         return deliveryService.createDelivery(request);
     }
 
@@ -46,4 +50,10 @@ public class DeliveryController implements DeliveryClient {
     public Double calculateDeliveryCost(@RequestBody OrderDto orderDto) {
         return deliveryService.calculateDeliveryCost(orderDto);
     }
+
+    @Override
+    @PostMapping("/cost/batch")
+    public Map<UUID, Double> calculateDeliveryCosts(@RequestBody List<OrderDto> orders) {
+        return deliveryService.calculateDeliveryCosts(orders);
+    }
 }
@@ -1,11 +1,18 @@
 package ru.yandex.practicum.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.yandex.practicum.model.Delivery;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface DeliveryRepository extends JpaRepository<Delivery, UUID> {
     Optional<Delivery> findByOrderId(UUID orderId);
+
+    @Query("SELECT d FROM Delivery d JOIN FETCH d.toAddress WHERE d.orderId IN :orderIds")
+    List<Delivery> findAllByOrderIdInWithToAddress(@Param("orderIds") Collection<UUID> orderIds);
 }
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.cache.WarehouseAddressCache;
 import ru.yandex.practicum.client.*;
 import ru.yandex.practicum.delivery.*;
 import ru.yandex.practicum.enums.DeliveryState;
@@ -14,7 +15,7 @@ import ru.yandex.practicum.order.OrderDto;
 import ru.yandex.practicum.repository.DeliveryRepository;
 import ru.yandex.practicum.warehouse.*;
 
-import java.util.UUID;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
@@ -22,10 +23,16 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class DeliveryService {
 
+    /**
+     * Размер порции идентификаторов заказов в одном запросе к БД при пакетном расчёте.
+     */
+    private static final int COST_BATCH_CHUNK_SIZE = 1000;
+
     private final DeliveryRepository repository;
     private final DeliveryToDtoMapper mapper;
     private final OrderClient orderClient;
     private final WarehouseClient warehouseClient;
+    private final WarehouseAddressCache warehouseAddressCache;
 
     /**
      * Создание новой доставки в БД.
@@ -117,7 +124,7 @@ public class DeliveryService {
         }
 
         Delivery delivery = getDeliveryByOrderIdOrThrow(orderDto.getOrderId());
-        AddressDto warehouseAddress = warehouseClient.getWarehouseAddress();
+        AddressDto warehouseAddress = warehouseAddressCache.get();
 
         Double cost = calculateDeliveryPrice(
                 warehouseAddress,
@@ -133,6 +140,68 @@ public class DeliveryService {
         return cost;
     }
 
+    /**
+     * Пакетный расчёт стоимости доставки для списка заказов.
+     * Доставки и адреса получателей загружаются одним запросом на порцию заказов,
+     * адрес склада берётся из кэша один раз на весь пакет.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Double> calculateDeliveryCosts(List<OrderDto> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, OrderDto> ordersById = new LinkedHashMap<>();
+        for (OrderDto order : orders) {
+            if (order == null || order.getOrderId() == null
+                    || order.getDeliveryVolume() == null || order.getDeliveryWeight() == null) {
+                throw new NotEnoughInfoInOrderToCalculateException(
+                        "Not enough info in order to calculate delivery cost: "
+                                + (order == null ? null : order.getOrderId()));
+            }
+            ordersById.put(order.getOrderId(), order);
+        }
+
+        Map<UUID, Delivery> deliveries = loadDeliveriesByOrderIds(ordersById.keySet());
+        if (deliveries.size() != ordersById.size()) {
+            Set<UUID> missing = new HashSet<>(ordersById.keySet());
+            missing.removeAll(deliveries.keySet());
+            throw new NoDeliveryFoundException("Delivery not found for orders: " + missing);
+        }
+
+        AddressDto warehouseAddress = warehouseAddressCache.get();
+        Map<UUID, Double> costs = new LinkedHashMap<>(ordersById.size() * 4 / 3 + 1);
+        for (OrderDto order : ordersById.values()) {
+            Delivery delivery = deliveries.get(order.getOrderId());
+            costs.put(order.getOrderId(), calculateDeliveryPrice(
+                    warehouseAddress,
+                    delivery.getToAddress(),
+                    order.getDeliveryWeight(),
+                    order.getDeliveryVolume(),
+                    order.getFragile()
+            ));
+        }
+
+        log.debug("Delivery costs calculated for {} orders", costs.size());
+        return costs;
+    }
+
+    /**
+     * Загрузка доставок вместе с адресами получателей порциями по {@link #COST_BATCH_CHUNK_SIZE}.
+     */
+    private Map<UUID, Delivery> loadDeliveriesByOrderIds(Collection<UUID> orderIds) {
+        List<UUID> ids = new ArrayList<>(orderIds);
+        Map<UUID, Delivery> deliveries = new HashMap<>(ids.size() * 4 / 3 + 1);
+
+        for (int from = 0; from < ids.size(); from += COST_BATCH_CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + COST_BATCH_CHUNK_SIZE, ids.size()));
+            for (Delivery delivery : repository.findAllByOrderIdInWithToAddress(chunk)) {
+                deliveries.putIfAbsent(delivery.getOrderId(), delivery);
+            }
+        }
+        return deliveries;
+    }
+
     /**
      * Получение доставки по orderId или исключение.
      */
@@ -21,4 +21,20 @@ CREATE TABLE IF NOT EXISTS delivery_service.deliveries (
     delivery_state VARCHAR(20) NOT NULL,
     from_address_id uuid REFERENCES delivery_service.addresses(address_id) ON DELETE CASCADE,
     to_address_id uuid REFERENCES delivery_service.addresses(address_id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- Индекс для поиска доставки по заказу
+CREATE INDEX IF NOT EXISTS idx_deliveries_order_id ON delivery_service.deliveries(order_id);
+
+-- Ключи идемпотентности: ответ на первый запрос отдаётся повторам с тем же ключом
+CREATE TABLE IF NOT EXISTS delivery_service.idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    response_body BYTEA,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at
+    ON delivery_service.idempotency_keys (created_at);
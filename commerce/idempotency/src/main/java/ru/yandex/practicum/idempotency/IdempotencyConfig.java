@@ -0,0 +1,28 @@
+package ru.yandex.practicum.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Серверная часть идемпотентности, включается параметром idempotency.enabled.
+ * Таблица ключей создаётся schema.sql сервиса, имя задаётся в idempotency.table.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "idempotency", name = "enabled", havingValue = "true")
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties) {
+        return new IdempotencyStore(jdbcTemplate, properties);
+    }
+
+    @Bean
+    public IdempotencyFilter idempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+        return new IdempotencyFilter(idempotencyStore, objectMapper);
+    }
+}
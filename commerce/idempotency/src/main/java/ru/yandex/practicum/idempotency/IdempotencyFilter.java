@@ -0,0 +1,142 @@
+package ru.yandex.practicum.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Повторный запрос с тем же {@value Idempotent#HEADER} получает сохранённый ответ первого, а не выполняется заново.
+ * Сохраняются только успешные ответы: после ошибки ключ освобождается и запрос можно повторить.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final Set<String> STATE_CHANGING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String key = request.getHeader(Idempotent.HEADER);
+        return key == null || key.isBlank() || !STATE_CHANGING_METHODS.contains(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest servletRequest, HttpServletResponse servletResponse,
+                                    FilterChain chain) throws ServletException, IOException {
+        String key = servletRequest.getHeader(Idempotent.HEADER);
+        if (key.length() > MAX_KEY_LENGTH) {
+            writeError(servletResponse, HttpStatus.BAD_REQUEST, "INVALID_IDEMPOTENCY_KEY",
+                    "Idempotency key is longer than " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest request = new CachedBodyRequest(servletRequest);
+        String requestHash = hash(request);
+
+        if (!store.tryReserve(key, requestHash)) {
+            Optional<StoredResponse> stored = store.find(key);
+            if (stored.isEmpty() || !stored.get().completed()) {
+                writeError(servletResponse, HttpStatus.CONFLICT, "IDEMPOTENCY_KEY_IN_PROGRESS",
+                        "Request with key " + key + " is still being processed");
+            } else if (!stored.get().requestHash().equals(requestHash)) {
+                writeError(servletResponse, HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED",
+                        "Key " + key + " was already used for a different request");
+            } else {
+                log.debug("Replaying stored response for idempotency key {}", key);
+                replay(servletResponse, stored.get());
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper response = new ContentCachingResponseWrapper(servletResponse);
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            int status = response.getStatus();
+            if (status >= 200 && status < 300) {
+                store.complete(key, status, response.getContentType(), response.getContentAsByteArray());
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                releaseQuietly(key);
+            }
+            response.copyBodyToResponse();
+        }
+    }
+
+    private void releaseQuietly(String key) {
+        try {
+            store.release(key);
+        } catch (DataAccessException e) {
+            // Ключ освободится сам по истечении in-progress-timeout
+            log.warn("Failed to release idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.statusCode());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String error, String detail)
+            throws IOException {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("error", error);
+        body.put("message", "Idempotency check failed");
+        body.put("detail", detail);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static String hash(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(request.getBody());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.idempotency;
+
+import feign.MethodMetadata;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Проверяет, что вызовы методов, помеченных {@link Idempotent}, несут ключ идемпотентности.
+ * Ключ передаёт вызывающий код через параметр-заголовок метода: он выводится из бизнес-операции
+ * (см. {@link IdempotencyKeys}), поэтому одинаков для всех попыток, а не только для повторов внутри Feign.
+ */
+@Component
+public class IdempotencyKeyInterceptor implements RequestInterceptor {
+
+    @Override
+    public void apply(RequestTemplate template) {
+        MethodMetadata metadata = template.methodMetadata();
+        if (metadata == null || metadata.method() == null || !metadata.method().isAnnotationPresent(Idempotent.class)) {
+            return;
+        }
+        Collection<String> keys = template.headers().get(Idempotent.HEADER);
+        if (keys == null || keys.stream().allMatch(key -> key == null || key.isBlank())) {
+            throw new IllegalStateException("Idempotency key is required for " + metadata.configKey());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.idempotency;
+
+import java.util.UUID;
+
+/**
+ * Ключи идемпотентности, выводимые из бизнес-операции, а не из отдельного HTTP-вызова.
+ * Один и тот же ключ получают все попытки операции, в том числе после перезапуска вызывающего сервиса.
+ */
+public final class IdempotencyKeys {
+
+    private IdempotencyKeys() {
+    }
+
+    /**
+     * Ключ операции над сущностью, например {@code of("order-payment", orderId)}.
+     */
+    public static String of(String operation, UUID id) {
+        return operation + ":" + id;
+    }
+}
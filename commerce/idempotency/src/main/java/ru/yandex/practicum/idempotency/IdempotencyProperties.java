@@ -0,0 +1,29 @@
+package ru.yandex.practicum.idempotency;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    boolean enabled;
+
+    /** Таблица ключей в схеме сервиса, например order_service.idempotency_keys */
+    String table = "idempotency_keys";
+
+    /** Сколько хранится ответ для повторов */
+    Duration ttl = Duration.ofHours(24);
+
+    /** Через сколько незавершённый запрос считается брошенным и ключ можно занять заново */
+    Duration inProgressTimeout = Duration.ofSeconds(30);
+
+    Duration cleanupInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Таблица ключей идемпотентности сервиса.
+ * Ключ занимается до выполнения запроса, чтобы параллельный повтор не выполнился второй раз.
+ */
+@Slf4j
+public class IdempotencyStore {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+    private final String reserveSql;
+    private final String findSql;
+    private final String completeSql;
+    private final String releaseSql;
+    private final String deleteExpiredSql;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties) {
+        String table = properties.getTable();
+        if (table == null || !TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid idempotency table name: " + table);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        // Занятый ключ перехватывается, только если прежний запрос не завершился за in-progress-timeout
+        this.reserveSql = """
+                INSERT INTO %s AS t (idempotency_key, request_hash, created_at)
+                VALUES (?, ?, now())
+                ON CONFLICT (idempotency_key) DO UPDATE
+                SET request_hash = EXCLUDED.request_hash, created_at = now()
+                WHERE t.status_code IS NULL AND t.created_at < ?
+                """.formatted(table);
+        this.findSql = """
+                SELECT request_hash, status_code, content_type, response_body
+                FROM %s WHERE idempotency_key = ?
+                """.formatted(table);
+        this.completeSql = """
+                UPDATE %s SET status_code = ?, content_type = ?, response_body = ?
+                WHERE idempotency_key = ?
+                """.formatted(table);
+        this.releaseSql = "DELETE FROM %s WHERE idempotency_key = ? AND status_code IS NULL".formatted(table);
+        this.deleteExpiredSql = "DELETE FROM %s WHERE created_at < ?".formatted(table);
+    }
+
+    boolean tryReserve(String key, String requestHash) {
+        Timestamp staleBefore = Timestamp.from(Instant.now().minus(properties.getInProgressTimeout()));
+        return jdbcTemplate.update(reserveSql, key, requestHash, staleBefore) > 0;
+    }
+
+    Optional<StoredResponse> find(String key) {
+        List<StoredResponse> rows = jdbcTemplate.query(findSql, (rs, rowNum) -> new StoredResponse(
+                rs.getString("request_hash"),
+                rs.getObject("status_code", Integer.class),
+                rs.getString("content_type"),
+                rs.getBytes("response_body")), key);
+        return rows.stream().findFirst();
+    }
+
+    void complete(String key, int statusCode, String contentType, byte[] body) {
+        jdbcTemplate.update(completeSql, statusCode, contentType, body, key);
+    }
+
+    void release(String key) {
+        jdbcTemplate.update(releaseSql, key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:10m}")
+    public void deleteExpired() {
+        Timestamp expiredBefore = Timestamp.from(Instant.now().minus(properties.getTtl()));
+        int deleted = jdbcTemplate.update(deleteExpiredSql, expiredBefore);
+        if (deleted > 0) {
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.idempotency;
+
+import java.lang.annotation.*;
+
+/**
+ * Метод Feign-клиента, повтор которого не должен повторно менять состояние вызываемого сервиса.
+ * Метод принимает ключ параметром с {@code @RequestHeader(Idempotent.HEADER)}; все попытки одной операции
+ * передают один и тот же ключ.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+
+    String HEADER = "Idempotency-Key";
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.idempotency;
+
+/**
+ * Запись о запросе с ключом идемпотентности; статус пуст, пока запрос выполняется.
+ */
+record StoredResponse(String requestHash, Integer statusCode, String contentType, byte[] body) {
+
+    boolean completed() {
+        return statusCode != null;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.cache;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "reference-cache")
+public class ReferenceCacheProperties {
+
+    Settings warehouseAddress = new Settings();
+
+    @Getter
+    @Setter
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Settings {
+
+        Duration ttl = Duration.ofMinutes(10);
+
+        Duration refreshAhead = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Кэш одного редко меняющегося значения, полученного от удалённого сервиса.
+ * <p>
+ * Значение живёт {@code ttl}. Если до истечения осталось меньше {@code refreshAhead},
+ * вызывающий поток получает текущее значение, а обновление запускается асинхронно.
+ * Синхронная загрузка происходит только при первом обращении или после истечения ttl.
+ * Ошибка фонового обновления не сбрасывает значение до истечения ttl.
+ */
+@Slf4j
+public class RefreshAheadCache<T> {
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final Duration ttl;
+    private final Duration refreshAhead;
+    private final Executor executor;
+    private final Clock clock;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Entry<T> entry;
+
+    /**
+     * Фоновое обновление - блокирующий вызов удалённого сервиса, поэтому по умолчанию оно выполняется
+     * в отдельном виртуальном потоке, а не в общем ForkJoinPool.
+     */
+    public RefreshAheadCache(String name, Supplier<T> loader, Duration ttl, Duration refreshAhead) {
+        this(name, loader, ttl, refreshAhead,
+                task -> Thread.ofVirtual().name("refresh-ahead-" + name).start(task), Clock.systemUTC());
+    }
+
+    public RefreshAheadCache(String name, Supplier<T> loader, Duration ttl, Duration refreshAhead,
+                             Executor executor, Clock clock) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive for cache " + name);
+        }
+        if (refreshAhead.isNegative() || refreshAhead.compareTo(ttl) >= 0) {
+            throw new IllegalArgumentException("Refresh-ahead must be less than TTL for cache " + name);
+        }
+        this.name = name;
+        this.loader = Objects.requireNonNull(loader);
+        this.ttl = ttl;
+        this.refreshAhead = refreshAhead;
+        this.executor = Objects.requireNonNull(executor);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * Получение значения из кэша с загрузкой или фоновым обновлением при необходимости.
+     */
+    public T get() {
+        Entry<T> current = entry;
+        Instant now = clock.instant();
+
+        if (current == null || !now.isBefore(current.expiresAt())) {
+            return loadSync();
+        }
+
+        if (!now.isBefore(current.expiresAt().minus(refreshAhead))) {
+            refreshAsync();
+        }
+        return current.value();
+    }
+
+    /**
+     * Сброс значения: следующее обращение загрузит его заново.
+     */
+    public void invalidate() {
+        entry = null;
+    }
+
+    private T loadSync() {
+        loadLock.lock();
+        try {
+            Entry<T> current = entry;
+            if (current != null && clock.instant().isBefore(current.expiresAt())) {
+                return current.value();
+            }
+            return store(loader.get()).value();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                store(loader.get());
+                log.debug("Cache {} refreshed ahead of expiration", name);
+            } catch (RuntimeException e) {
+                log.warn("Failed to refresh cache {}, keeping current value: {}", name, e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        }, executor);
+    }
+
+    private Entry<T> store(T value) {
+        Entry<T> loaded = new Entry<>(Objects.requireNonNull(value, "Loaded value is null for cache " + name),
+                clock.instant().plus(ttl));
+        entry = loaded;
+        return loaded;
+    }
+
+    private record Entry<T>(T value, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.cache;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.client.WarehouseClient;
+import ru.yandex.practicum.warehouse.AddressDto;
+
+/**
+ * Кэшированный адрес склада. Первый запрос к складу выполняется при первом обращении.
+ */
+@Component
+public class WarehouseAddressCache {
+
+    private final RefreshAheadCache<AddressDto> cache;
+
+    public WarehouseAddressCache(WarehouseClient warehouseClient, ReferenceCacheProperties properties) {
+        ReferenceCacheProperties.Settings settings = properties.getWarehouseAddress();
+        this.cache = new RefreshAheadCache<>("warehouse-address", warehouseClient::getWarehouseAddress,
+                settings.getTtl(), settings.getRefreshAhead());
+    }
+
+    public AddressDto get() {
+        return cache.get();
+    }
+
+    public void invalidate() {
+        cache.invalidate();
+    }
+}
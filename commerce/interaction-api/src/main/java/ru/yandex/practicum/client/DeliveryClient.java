@@ -4,17 +4,23 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import ru.yandex.practicum.delivery.DeliveryDto;
 import ru.yandex.practicum.delivery.NewDeliveryRequestDto;
+import ru.yandex.practicum.idempotency.Idempotent;
 import ru.yandex.practicum.order.OrderDto;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @FeignClient(name = "delivery", path = "/api/v1/delivery")
 public interface DeliveryClient {
 
+    @Idempotent
     @PutMapping
-    DeliveryDto createDelivery(@RequestBody NewDeliveryRequestDto request);
+    DeliveryDto createDelivery(@RequestBody NewDeliveryRequestDto request,
+                               @RequestHeader(Idempotent.HEADER) String idempotencyKey);
 
     @PostMapping("/successful")
     DeliveryDto success(@RequestBody UUID orderId);
@@ -27,4 +33,7 @@ public interface DeliveryClient {
 
     @PostMapping("/cost")
     Double calculateDeliveryCost(@RequestBody OrderDto orderDto);
+
+    @PostMapping("/cost/batch")
+    Map<UUID, Double> calculateDeliveryCosts(@RequestBody List<OrderDto> orders);
 }
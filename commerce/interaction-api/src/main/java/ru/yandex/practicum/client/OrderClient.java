@@ -2,8 +2,10 @@ package ru.yandex.practicum.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.idempotency.Idempotent;
 import ru.yandex.practicum.order.CreateNewOrderRequest;
 import ru.yandex.practicum.order.OrderDto;
+import ru.yandex.practicum.order.OrderHistoryPageDto;
 import ru.yandex.practicum.order.ProductReturnRequest;
 
 import java.util.List;
@@ -15,9 +17,16 @@ public interface OrderClient {
     @GetMapping
     List<OrderDto> getOrders(@RequestParam(name = "username") String username);
 
+    @GetMapping("/history")
+    OrderHistoryPageDto getOrderHistory(@RequestParam(name = "username") String username,
+                                        @RequestParam(name = "cursor", required = false) String cursor,
+                                        @RequestParam(name = "size", defaultValue = "20") int size);
+
+    @Idempotent
     @PutMapping
     OrderDto createOrder(@RequestBody CreateNewOrderRequest request,
-                         @RequestParam(name = "username") String username);
+                         @RequestParam(name = "username") String username,
+                         @RequestHeader(Idempotent.HEADER) String idempotencyKey);
 
     @PostMapping("/return")
     OrderDto returnProducts(@RequestBody ProductReturnRequest request);
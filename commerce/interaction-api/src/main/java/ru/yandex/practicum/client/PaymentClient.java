@@ -3,6 +3,8 @@ package ru.yandex.practicum.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import ru.yandex.practicum.idempotency.Idempotent;
 import ru.yandex.practicum.order.OrderDto;
 import ru.yandex.practicum.payment.PaymentDto;
 
@@ -11,8 +13,10 @@ import java.util.UUID;
 @FeignClient(name = "payment", path = "/api/v1/payment")
 public interface PaymentClient {
 
+    @Idempotent
     @PostMapping
-    PaymentDto createPayment(@RequestBody OrderDto orderDto);
+    PaymentDto createPayment(@RequestBody OrderDto orderDto,
+                             @RequestHeader(Idempotent.HEADER) String idempotencyKey);
 
     @PostMapping("/totalCost")
     Double totalCost(@RequestBody OrderDto orderDto);
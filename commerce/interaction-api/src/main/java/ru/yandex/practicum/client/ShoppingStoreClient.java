@@ -6,8 +6,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.enums.ProductCategory;
 import ru.yandex.practicum.store.ProductDto;
+import ru.yandex.practicum.store.ProductKeysetPageDto;
 import ru.yandex.practicum.store.SetProductQuantityStateRequest;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @FeignClient(name = "shopping-store", path = "/api/v1/shopping-store")
@@ -16,6 +19,14 @@ public interface ShoppingStoreClient {
     @GetMapping
     Page<ProductDto> getProducts(@RequestParam(name = "category") ProductCategory category, Pageable pageable);
 
+    @GetMapping("/seek")
+    ProductKeysetPageDto getProductsAfter(@RequestParam(name = "category") ProductCategory category,
+                                          @RequestParam(name = "cursor", required = false) String cursor,
+                                          @RequestParam(name = "size", defaultValue = "20") int size);
+
+    @GetMapping("/search")
+    Page<ProductDto> searchProducts(@RequestParam(name = "query") String query, Pageable pageable);
+
     @PutMapping
     ProductDto createProduct(@RequestBody ProductDto productDto);
 
@@ -30,4 +41,7 @@ public interface ShoppingStoreClient {
 
     @GetMapping("/{productId}")
     ProductDto getProduct(@PathVariable UUID productId);
+
+    @PostMapping("/batch")
+    List<ProductDto> getProducts(@RequestBody Collection<UUID> productIds);
 }
@@ -5,13 +5,17 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import ru.yandex.practicum.cart.ChangeProductQuantityRequest;
 import ru.yandex.practicum.cart.ShoppingCartDto;
+import ru.yandex.practicum.idempotency.Idempotent;
+import ru.yandex.practicum.resilience.WarehouseClientFallbackFactory;
 import ru.yandex.practicum.warehouse.*;
 
 import java.util.Map;
 import java.util.UUID;
 
-@FeignClient(name= "warehouse", path = "/api/v1/warehouse")
+@FeignClient(name= "warehouse", path = "/api/v1/warehouse", fallbackFactory = WarehouseClientFallbackFactory.class)
 public interface WarehouseClient {
 
     @PutMapping
@@ -23,12 +27,17 @@ public interface WarehouseClient {
     @PostMapping("/return")
     void returnProduct(@RequestBody Map<UUID, Long> products);
 
+    @Idempotent
     @PostMapping("/assembly")
-    BookedProductsDto assemblyProductsForOrder(@RequestBody AssemblyProductsForOrderRequest request);
+    BookedProductsDto assemblyProductsForOrder(@RequestBody AssemblyProductsForOrderRequest request,
+                                               @RequestHeader(Idempotent.HEADER) String idempotencyKey);
 
     @PostMapping("/check")
     BookedProductsDto checkAvailability(@RequestBody ShoppingCartDto cart);
 
+    @PostMapping("/check/product")
+    BookedProductsDto checkProductAvailability(@RequestBody ChangeProductQuantityRequest request);
+
     @PostMapping("/add")
     void receiveProduct(@RequestBody AddProductToWarehouseRequest request);
 
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.order;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Страница истории заказов пользователя, от новых к старым.
+ * Для получения следующей страницы передаётся {@code nextCursor}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OrderHistoryPageDto {
+
+    List<OrderDto> content;
+
+    String nextCursor;
+
+    boolean hasNext;
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.resilience;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Общие настройки отказоустойчивости Feign-клиентов.
+ * Включается в сервисе параметром spring.cloud.openfeign.circuitbreaker.enabled.
+ */
+@Configuration
+public class FeignResilienceConfig {
+
+    /**
+     * Один circuit breaker, bulkhead и time limiter на Feign-клиент, а не на каждый метод.
+     * Настройки задаются в resilience4j.*.instances.&lt;имя клиента&gt;, например warehouse.
+     */
+    @Bean
+    public CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+
+    /**
+     * Исполнитель вызовов под time limiter; закрывается вместе с контекстом и дожидается начатых вызовов.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public ExecutorService circuitBreakerExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * В режиме виртуальных потоков вызовы под time limiter тоже выполняются в виртуальных потоках,
+     * а не в ограниченном пуле платформенных.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Customizer<Resilience4JCircuitBreakerFactory> virtualThreadCircuitBreakerExecutor(
+            ExecutorService circuitBreakerExecutor) {
+        return factory -> factory.configureExecutorService(circuitBreakerExecutor);
+    }
+}
@@ -0,0 +1,113 @@
+package ru.yandex.practicum.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.exception.ProductInShoppingCartLowQuantityInWarehouseException;
+import ru.yandex.practicum.warehouse.BookedProductsDto;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Локальный снимок сведений об остатках, собранный из ответов склада.
+ * <p>
+ * Для товара запоминается количество, которого на складе заведомо не хватило, и параметры одной единицы
+ * (вес, объём, хрупкость). Пока склад недоступен, проверка наличия отвечает по снимку:
+ * запрос не меньше известного дефицита отклоняется, остальные пропускаются с пометкой possiblyStale.
+ * Если хотя бы об одном товаре снимок ничего не знает, ответить по нему нельзя.
+ */
+@Component
+public class StockSnapshot {
+
+    private final Cache<UUID, ProductStockInfo> products;
+
+    public StockSnapshot(StockSnapshotProperties properties) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Склад подтвердил наличие товаров в указанных количествах. Для ещё неизвестного товара заводится запись
+     * без параметров единицы: по ней проверка наличия пропускает товар, не добавляя его в вес и объём.
+     */
+    public void recordAvailable(Map<UUID, Long> quantities) {
+        quantities.forEach((productId, quantity) -> products.asMap().compute(productId,
+                (id, info) -> info == null ? new ProductStockInfo(null, null, null, null) : info.available(quantity, null)));
+    }
+
+    /**
+     * Склад подтвердил наличие одного товара; ответ содержит параметры доставки для этого количества.
+     */
+    public void recordAvailable(UUID productId, long quantity, BookedProductsDto booked) {
+        ProductStockInfo unit = new ProductStockInfo(null,
+                booked.getDeliveryWeight() / quantity,
+                booked.getDeliveryVolume() / quantity,
+                booked.getFragile());
+        products.asMap().compute(productId,
+                (id, info) -> info == null ? unit : info.available(quantity, unit));
+    }
+
+    /**
+     * Склад сообщил о нехватке товара для указанного количества.
+     */
+    public void recordInsufficient(UUID productId, long quantity) {
+        products.asMap().compute(productId, (id, info) -> info == null
+                ? new ProductStockInfo(quantity, null, null, null)
+                : info.insufficient(quantity));
+    }
+
+    /**
+     * Ответ на проверку наличия по снимку, пока склад недоступен.
+     *
+     * @return пустой результат, если хотя бы одного товара нет в снимке
+     */
+    public Optional<BookedProductsDto> answer(Map<UUID, Long> quantities) {
+        double weight = 0.0;
+        double volume = 0.0;
+        boolean fragile = false;
+
+        for (Map.Entry<UUID, Long> entry : quantities.entrySet()) {
+            long quantity = entry.getValue() == null ? 0L : entry.getValue();
+            ProductStockInfo info = products.getIfPresent(entry.getKey());
+            if (info == null) {
+                return Optional.empty();
+            }
+            if (info.insufficientFrom() != null && quantity >= info.insufficientFrom()) {
+                throw new ProductInShoppingCartLowQuantityInWarehouseException(
+                        "Product " + entry.getKey() + " is not available in quantity " + quantity
+                                + " according to the last known warehouse state");
+            }
+            if (info.unitWeight() != null) {
+                weight += info.unitWeight() * quantity;
+                volume += info.unitVolume() * quantity;
+                fragile |= Boolean.TRUE.equals(info.fragile());
+            }
+        }
+
+        return Optional.of(BookedProductsDto.builder()
+                .deliveryWeight(weight)
+                .deliveryVolume(volume)
+                .fragile(fragile)
+                .possiblyStale(true)
+                .build());
+    }
+
+    private record ProductStockInfo(Long insufficientFrom, Double unitWeight, Double unitVolume, Boolean fragile) {
+
+        ProductStockInfo available(long quantity, ProductStockInfo unit) {
+            Long stillInsufficient = insufficientFrom != null && insufficientFrom > quantity ? insufficientFrom : null;
+            return unit == null
+                    ? new ProductStockInfo(stillInsufficient, unitWeight, unitVolume, fragile)
+                    : new ProductStockInfo(stillInsufficient, unit.unitWeight, unit.unitVolume, unit.fragile);
+        }
+
+        ProductStockInfo insufficient(long quantity) {
+            long from = insufficientFrom == null ? quantity : Math.min(insufficientFrom, quantity);
+            return new ProductStockInfo(from, unitWeight, unitVolume, fragile);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.resilience;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "resilience.stock-snapshot")
+public class StockSnapshotProperties {
+
+    long maximumSize = 50_000;
+
+    Duration ttl = Duration.ofMinutes(30);
+}
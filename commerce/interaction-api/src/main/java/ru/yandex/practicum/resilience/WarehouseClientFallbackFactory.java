@@ -0,0 +1,110 @@
+package ru.yandex.practicum.resilience;
+
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.cart.ChangeProductQuantityRequest;
+import ru.yandex.practicum.cart.ShoppingCartDto;
+import ru.yandex.practicum.client.WarehouseClient;
+import ru.yandex.practicum.warehouse.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Резервные ответы склада при открытом circuit breaker, превышении таймаута или переполнении bulkhead.
+ * Проверки наличия отвечают по {@link StockSnapshot}; ошибки клиента (4xx), проверки товаров,
+ * отсутствующих в снимке, и остальные методы пробрасывают исходную ошибку.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarehouseClientFallbackFactory implements FallbackFactory<WarehouseClient> {
+
+    private final StockSnapshot stockSnapshot;
+
+    @Override
+    public WarehouseClient create(Throwable cause) {
+        Throwable error = unwrap(cause);
+        return new WarehouseClient() {
+
+            @Override
+            public BookedProductsDto checkAvailability(ShoppingCartDto cart) {
+                rethrowIfClientError(error);
+                log.warn("Warehouse unavailable ({}), answering availability from stock snapshot: cartId={}",
+                        error.toString(), cart.getShoppingCartId());
+                return stockSnapshot.answer(cart.getProducts()).orElseThrow(() -> propagate(error));
+            }
+
+            @Override
+            public BookedProductsDto checkProductAvailability(ChangeProductQuantityRequest request) {
+                if (error instanceof FeignException.FeignClientException clientError
+                        && clientError.status() == HttpStatus.BAD_REQUEST.value()) {
+                    stockSnapshot.recordInsufficient(request.getProductId(), request.getNewQuantity());
+                }
+                rethrowIfClientError(error);
+                log.warn("Warehouse unavailable ({}), answering availability from stock snapshot: productId={}",
+                        error.toString(), request.getProductId());
+                return stockSnapshot.answer(Map.of(request.getProductId(), request.getNewQuantity()))
+                        .orElseThrow(() -> propagate(error));
+            }
+
+            @Override
+            public void registerNewProduct(NewProductInWarehouseRequest request) {
+                throw propagate(error);
+            }
+
+            @Override
+            public void shippedToDelivery(ShippedToDeliveryRequest request) {
+                throw propagate(error);
+            }
+
+            @Override
+            public void returnProduct(Map<UUID, Long> products) {
+                throw propagate(error);
+            }
+
+            @Override
+            public BookedProductsDto assemblyProductsForOrder(AssemblyProductsForOrderRequest request,
+                                                              String idempotencyKey) {
+                throw propagate(error);
+            }
+
+            @Override
+            public void receiveProduct(AddProductToWarehouseRequest request) {
+                throw propagate(error);
+            }
+
+            @Override
+            public AddressDto getWarehouseAddress() {
+                throw propagate(error);
+            }
+        };
+    }
+
+    private static void rethrowIfClientError(Throwable error) {
+        if (error instanceof FeignException.FeignClientException) {
+            throw propagate(error);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable error) {
+        return error instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new IllegalStateException(error);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof ExecutionException || current instanceof CompletionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.store;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.yandex.practicum.enums.ProductCategory;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Событие об изменении товара в витрине магазина.
+ * Публикуется после фиксации транзакции и используется для инвалидации локальных кэшей.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductChangedEvent {
+
+    UUID productId;
+
+    ProductCategory productCategory;
+
+    Instant changedAt;
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.store;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Страница товаров при keyset-пагинации.
+ * Для получения следующей страницы передаётся {@code nextCursor}; общее количество не считается.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductKeysetPageDto {
+
+    List<ProductDto> content;
+
+    String nextCursor;
+
+    boolean hasNext;
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.transport;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Транспорт Feign-клиентов на Apache HttpClient 5 с keep-alive пулами соединений.
+ * Общий пул настраивается через spring.cloud.openfeign.httpclient.*, выделенные — через feign-transport.clients.
+ * Ответы в gzip HttpClient 5 распаковывает сам и сам же отправляет Accept-Encoding.
+ */
+@Slf4j
+@Configuration
+public class FeignTransportConfig implements DisposableBean {
+
+    private final List<CloseableHttpClient> dedicatedClients = new ArrayList<>();
+
+    @Bean
+    public Client feignClient(CloseableHttpClient httpClient5,
+                              HttpClientConnectionManager hc5ConnectionManager,
+                              FeignTransportProperties properties,
+                              ObjectProvider<MeterRegistry> meterRegistry,
+                              LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              List<LoadBalancerFeignRequestTransformer> transformers) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null && hc5ConnectionManager instanceof PoolingHttpClientConnectionManager pool) {
+            bindPoolMetrics(pool, "default", registry);
+        }
+
+        Map<String, Client> clients = new HashMap<>();
+        properties.getClients().forEach((name, settings) -> {
+            PoolingHttpClientConnectionManager pool = buildPool(settings);
+            CloseableHttpClient httpClient = HttpClients.custom()
+                    .setConnectionManager(pool)
+                    .evictExpiredConnections()
+                    .evictIdleConnections(TimeValue.of(settings.getIdleEviction()))
+                    .build();
+            dedicatedClients.add(httpClient);
+            clients.put(name, new ApacheHttp5Client(httpClient));
+            if (registry != null) {
+                bindPoolMetrics(pool, name, registry);
+            }
+            log.info("Feign client {}: dedicated pool of {} connections, {} per route",
+                    name, settings.getMaxConnections(), settings.getMaxConnectionsPerRoute());
+        });
+
+        Client delegate = new RoutingFeignClient(clients, new ApacheHttp5Client(httpClient5));
+        return new FeignBlockingLoadBalancerClient(delegate, loadBalancerClient, loadBalancerClientFactory,
+                transformers);
+    }
+
+    @Override
+    public void destroy() {
+        dedicatedClients.forEach(client -> client.close(CloseMode.GRACEFUL));
+    }
+
+    private PoolingHttpClientConnectionManager buildPool(FeignTransportProperties.Pool settings) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.getMaxConnections())
+                .setMaxConnPerRoute(settings.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.of(settings.getTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.of(settings.getValidateAfterInactivity()))
+                        .build())
+                .build();
+    }
+
+    private void bindPoolMetrics(PoolingHttpClientConnectionManager pool, String name, MeterRegistry registry) {
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign-" + name)
+                .bindTo(registry);
+    }
+}
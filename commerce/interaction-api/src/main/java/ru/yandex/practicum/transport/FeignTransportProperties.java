@@ -0,0 +1,50 @@
+package ru.yandex.practicum.transport;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Выделенные пулы соединений для отдельных Feign-клиентов.
+ * Клиенты, которых нет в clients, используют общий пул spring.cloud.openfeign.httpclient.*.
+ */
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "feign-transport")
+public class FeignTransportProperties {
+
+    Map<String, Pool> clients = new HashMap<>();
+
+    /** Формат тел запросов и ответов между сервисами; внешние вызовы всегда получают JSON */
+    WireFormat wireFormat = WireFormat.JSON;
+
+    public enum WireFormat {
+        JSON,
+        SMILE
+    }
+
+    @Getter
+    @Setter
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Pool {
+
+        int maxConnections = 50;
+
+        int maxConnectionsPerRoute = 20;
+
+        /** Сколько соединение может простаивать в пуле, прежде чем его закроет фоновый поток */
+        Duration idleEviction = Duration.ofSeconds(30);
+
+        Duration timeToLive = Duration.ofMinutes(5);
+
+        /** Через сколько простоя соединение проверяется перед повторным использованием */
+        Duration validateAfterInactivity = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.transport;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Направляет запрос в пул соединений того Feign-клиента, от имени которого он отправлен.
+ * Имя берётся из цели запроса, поэтому выбор пула не зависит от адреса экземпляра после балансировки.
+ */
+class RoutingFeignClient implements Client {
+
+    private final Map<String, Client> clients;
+    private final Client defaultClient;
+
+    RoutingFeignClient(Map<String, Client> clients, Client defaultClient) {
+        this.clients = Map.copyOf(clients);
+        this.defaultClient = defaultClient;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        return resolve(request).execute(request, options);
+    }
+
+    private Client resolve(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        if (template == null || template.feignTarget() == null) {
+            return defaultClient;
+        }
+        return clients.getOrDefault(template.feignTarget().name(), defaultClient);
+    }
+}
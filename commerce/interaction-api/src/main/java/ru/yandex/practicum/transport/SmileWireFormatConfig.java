@@ -0,0 +1,50 @@
+package ru.yandex.practicum.transport;
+
+import feign.Capability;
+import feign.RequestInterceptor;
+import feign.codec.Encoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Двоичный формат Smile для вызовов между сервисами, включается параметром feign-transport.wire-format=smile.
+ * Контроллеры понимают Smile всегда: конвертер регистрируется Spring MVC, как только jackson-dataformat-smile
+ * есть в classpath, а клиентам без Accept: application/x-jackson-smile по-прежнему отдаётся JSON.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "feign-transport", name = "wire-format", havingValue = "smile")
+public class SmileWireFormatConfig {
+
+    static final String SMILE = "application/x-jackson-smile";
+
+    /** JSON остаётся запасным вариантом, если вызываемая сторона Smile не поддерживает */
+    @Bean
+    public RequestInterceptor smileAcceptInterceptor() {
+        return template -> {
+            if (!template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                template.header(HttpHeaders.ACCEPT, SMILE, "application/json;q=0.5");
+            }
+        };
+    }
+
+    /**
+     * Тип тела выставляется до кодирования: SpringEncoder выбирает конвертер по Content-Type шаблона,
+     * а перехватчики запускаются уже после кодирования.
+     */
+    @Bean
+    public Capability smileEncoderCapability() {
+        return new Capability() {
+            @Override
+            public Encoder enrich(Encoder encoder) {
+                return (object, bodyType, template) -> {
+                    if (!template.headers().containsKey(HttpHeaders.CONTENT_TYPE)) {
+                        template.header(HttpHeaders.CONTENT_TYPE, SMILE);
+                    }
+                    encoder.encode(object, bodyType, template);
+                };
+            }
+        };
+    }
+}
@@ -20,4 +20,9 @@ public class BookedProductsDto {
 
     @NotNull
     Boolean fragile;
+
+    /**
+     * Ответ получен не от склада, а из локального снимка остатков и может быть неактуален.
+     */
+    boolean possiblyStale;
 }
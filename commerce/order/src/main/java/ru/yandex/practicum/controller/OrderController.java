@@ -3,8 +3,10 @@ package ru.yandex.practicum.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.client.OrderClient;
+import ru.yandex.practicum.idempotency.Idempotent;
 import ru.yandex.practicum.order.CreateNewOrderRequest;
 import ru.yandex.practicum.order.OrderDto;
+import ru.yandex.practicum.order.OrderHistoryPageDto;
 import ru.yandex.practicum.order.ProductReturnRequest;
 import ru.yandex.practicum.service.OrderService;
 
@@ -24,10 +26,19 @@ public class OrderController implements OrderClient {
         return orderService.getUserOrders(username);
     }
 
+    @Override
+    @GetMapping("/history")
+    public OrderHistoryPageDto getOrderHistory(@RequestParam(name = "username") String username,
+                                               @RequestParam(name = "cursor", required = false) String cursor,
+                                               @RequestParam(name = "size", defaultValue = "20") int size) {
+        return orderService.getOrderHistory(username, cursor, size);
+    }
+
     @Override
     @PutMapping
     public OrderDto createOrder(@RequestBody CreateNewOrderRequest request,
-                                @RequestParam(name = "username") String username) {
+                                @RequestParam(name = "username") String username,
+                                @RequestHeader(name = Idempotent.HEADER, required = false) String idempotencyKey) {
         return orderService.createOrder(request, username);
     }
 
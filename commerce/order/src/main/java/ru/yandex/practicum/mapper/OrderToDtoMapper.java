@@ -2,8 +2,12 @@ package ru.yandex.practicum.mapper;
 
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.model.Order;
+import ru.yandex.practicum.model.OrderSummary;
 import ru.yandex.practicum.order.OrderDto;
 
+import java.util.Map;
+import java.util.UUID;
+
 @Component
 public class OrderToDtoMapper {
     public OrderDto toDto(Order order) {
@@ -22,4 +26,21 @@ public class OrderToDtoMapper {
                 .productPrice(order.getProductPrice())
                 .build();
     }
+
+    public OrderDto toDto(OrderSummary summary, Map<UUID, Long> products) {
+        return OrderDto.builder()
+                .orderId(summary.orderId())
+                .shoppingCartId(summary.shoppingCartId())
+                .products(products)
+                .paymentId(summary.paymentId())
+                .deliveryId(summary.deliveryId())
+                .state(summary.state().name())
+                .deliveryWeight(summary.deliveryWeight())
+                .deliveryVolume(summary.deliveryVolume())
+                .fragile(summary.fragile())
+                .totalPrice(summary.totalPrice())
+                .deliveryPrice(summary.deliveryPrice())
+                .productPrice(summary.productPrice())
+                .build();
+    }
 }
@@ -8,6 +8,7 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 import ru.yandex.practicum.enums.OrderState;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -70,4 +71,8 @@ public class Order {
 
     @Column(name = "product_price")
     Double productPrice;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false, updatable = false)
+    Instant createdAt;
 }
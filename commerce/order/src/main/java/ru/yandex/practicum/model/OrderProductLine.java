@@ -0,0 +1,9 @@
+package ru.yandex.practicum.model;
+
+import java.util.UUID;
+
+/**
+ * Строка товара заказа, загружаемая одним запросом для страницы истории.
+ */
+public record OrderProductLine(UUID orderId, UUID productId, Long quantity) {
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.model;
+
+import ru.yandex.practicum.enums.OrderState;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Проекция заказа для истории: поля таблицы orders без коллекции товаров.
+ */
+public record OrderSummary(UUID orderId,
+                           UUID shoppingCartId,
+                           UUID paymentId,
+                           UUID deliveryId,
+                           OrderState state,
+                           Double deliveryWeight,
+                           Double deliveryVolume,
+                           Boolean fragile,
+                           Double totalPrice,
+                           Double deliveryPrice,
+                           Double productPrice,
+                           Instant createdAt) {
+}
@@ -1,11 +1,53 @@
 package ru.yandex.practicum.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.yandex.practicum.model.Order;
+import ru.yandex.practicum.model.OrderProductLine;
+import ru.yandex.practicum.model.OrderSummary;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
+
+    @EntityGraph(attributePaths = "products")
     List<Order> findAllByUsername(String username);
+
+    @Query("""
+            SELECT new ru.yandex.practicum.model.OrderSummary(o.orderId, o.shoppingCartId, o.paymentId,
+                   o.deliveryId, o.state, o.deliveryWeight, o.deliveryVolume, o.fragile, o.totalPrice,
+                   o.deliveryPrice, o.productPrice, o.createdAt)
+            FROM Order o
+            WHERE o.username = :username
+            ORDER BY o.createdAt DESC, o.orderId DESC
+            """)
+    List<OrderSummary> findFirstSummaries(@Param("username") String username, Limit limit);
+
+    @Query("""
+            SELECT new ru.yandex.practicum.model.OrderSummary(o.orderId, o.shoppingCartId, o.paymentId,
+                   o.deliveryId, o.state, o.deliveryWeight, o.deliveryVolume, o.fragile, o.totalPrice,
+                   o.deliveryPrice, o.productPrice, o.createdAt)
+            FROM Order o
+            WHERE o.username = :username
+              AND o.createdAt <= :createdAt
+              AND (o.createdAt < :createdAt OR o.orderId < :orderId)
+            ORDER BY o.createdAt DESC, o.orderId DESC
+            """)
+    List<OrderSummary> findNextSummaries(@Param("username") String username,
+                                         @Param("createdAt") Instant createdAt,
+                                         @Param("orderId") UUID orderId,
+                                         Limit limit);
+
+    @Query("""
+            SELECT new ru.yandex.practicum.model.OrderProductLine(o.orderId, KEY(p), VALUE(p))
+            FROM Order o JOIN o.products p
+            WHERE o.orderId IN :orderIds
+            """)
+    List<OrderProductLine> findProductLines(@Param("orderIds") Collection<UUID> orderIds);
 }
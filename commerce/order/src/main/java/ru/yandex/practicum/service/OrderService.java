@@ -2,20 +2,26 @@ package ru.yandex.practicum.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.cache.WarehouseAddressCache;
 import ru.yandex.practicum.client.*;
 import ru.yandex.practicum.delivery.*;
 import ru.yandex.practicum.enums.OrderState;
 import ru.yandex.practicum.exception.NoOrderFoundException;
+import ru.yandex.practicum.idempotency.IdempotencyKeys;
 import ru.yandex.practicum.mapper.OrderToDtoMapper;
 import ru.yandex.practicum.model.Order;
+import ru.yandex.practicum.model.OrderProductLine;
+import ru.yandex.practicum.model.OrderSummary;
 import ru.yandex.practicum.order.*;
 import ru.yandex.practicum.repository.OrderRepository;
 import ru.yandex.practicum.warehouse.*;
 
-import java.util.List;
-import java.util.UUID;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
@@ -23,11 +29,14 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class OrderService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final OrderRepository repository;
     private final OrderToDtoMapper mapper;
     private final DeliveryClient deliveryClient;
     private final PaymentClient paymentClient;
     private final WarehouseClient warehouseClient;
+    private final WarehouseAddressCache warehouseAddressCache;
 
     /**
      * Получения списка заказов пользователя.
@@ -43,6 +52,54 @@ public class OrderService {
                 .toList();
     }
 
+    /**
+     * Страница истории заказов пользователя, от новых к старым.
+     * Заказы читаются проекцией, товары всех заказов страницы — одним запросом.
+     */
+    public OrderHistoryPageDto getOrderHistory(String username, String cursor, int size) {
+        validateUsername(username);
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+
+        // Запрашиваем на одну запись больше, чтобы узнать о наличии следующей страницы
+        List<OrderSummary> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = repository.findFirstSummaries(username, Limit.of(size + 1));
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            summaries = repository.findNextSummaries(username, after.createdAt(), after.orderId(),
+                    Limit.of(size + 1));
+        }
+
+        boolean hasNext = summaries.size() > size;
+        List<OrderSummary> page = hasNext ? summaries.subList(0, size) : summaries;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummary last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.createdAt(), last.orderId()).encode();
+        }
+
+        Map<UUID, Map<UUID, Long>> products = new HashMap<>();
+        if (!page.isEmpty()) {
+            List<UUID> orderIds = page.stream().map(OrderSummary::orderId).toList();
+            for (OrderProductLine line : repository.findProductLines(orderIds)) {
+                products.computeIfAbsent(line.orderId(), id -> new HashMap<>())
+                        .put(line.productId(), line.quantity());
+            }
+        }
+
+        log.debug("Getting order history: username={}, size={}, hasNext={}", username, page.size(), hasNext);
+        return OrderHistoryPageDto.builder()
+                .content(page.stream()
+                        .map(summary -> mapper.toDto(summary,
+                                products.getOrDefault(summary.orderId(), Map.of())))
+                        .toList())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
     /**
      * Создание нового заказа из корзины покупок.
      */
@@ -61,6 +118,7 @@ public class OrderService {
                 .totalPrice(0.0)
                 .deliveryPrice(0.0)
                 .productPrice(0.0)
+                .createdAt(Instant.now().truncatedTo(ChronoUnit.MICROS))
                 .build();
 
         repository.save(order);
@@ -72,20 +130,22 @@ public class OrderService {
                 .products(request.getShoppingCartDto().getProducts())
                 .build();
 
-        BookedProductsDto booked = warehouseClient.assemblyProductsForOrder(assemblyRequest);
+        BookedProductsDto booked = warehouseClient.assemblyProductsForOrder(assemblyRequest,
+                IdempotencyKeys.of("order-assembly", order.getOrderId()));
         log.debug("Products booked for order: {}", order.getOrderId());
 
         // Создание доставки
         NewDeliveryRequestDto deliveryRequest = NewDeliveryRequestDto.builder()
                 .orderId(order.getOrderId())
                 .toAddress(request.getDeliveryAddress())
-                .fromAddress(warehouseClient.getWarehouseAddress())
+                .fromAddress(warehouseAddressCache.get())
                 .totalWeight(booked.getDeliveryWeight())
                 .totalVolume(booked.getDeliveryVolume())
                 .fragile(booked.getFragile())
                 .build();
 
-        DeliveryDto delivery = deliveryClient.createDelivery(deliveryRequest);
+        DeliveryDto delivery = deliveryClient.createDelivery(deliveryRequest,
+                IdempotencyKeys.of("order-delivery", order.getOrderId()));
         log.debug("Delivery created: {}", delivery.getDeliveryId());
 
         // Обновление заказа
@@ -174,7 +234,7 @@ public class OrderService {
     public OrderDto payment(UUID orderId) {
         Order order = getOrderOrThrow(orderId);
 
-        paymentClient.createPayment(mapper.toDto(order));
+        paymentClient.createPayment(mapper.toDto(order), IdempotencyKeys.of("order-payment", orderId));
         log.debug("Payment created for order: {}", orderId);
 
         order.setState(OrderState.ON_PAYMENT);
@@ -23,4 +23,25 @@ CREATE TABLE IF NOT EXISTS order_service.order_products (
     product_id UUID NOT NULL,
     quantity BIGINT NOT NULL CHECK ( quantity >= 0 ),
     PRIMARY KEY (order_id, product_id)
-);
\ No newline at end of file
+);
+
+-- Время создания заказа для истории заказов пользователя
+ALTER TABLE order_service.orders
+    ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+
+-- Индекс для keyset-пагинации истории заказов пользователя
+CREATE INDEX IF NOT EXISTS idx_orders_username_created_at
+    ON order_service.orders (username, created_at DESC, order_id DESC);
+
+-- Ключи идемпотентности: ответ на первый запрос отдаётся повторам с тем же ключом
+CREATE TABLE IF NOT EXISTS order_service.idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    response_body BYTEA,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at
+    ON order_service.idempotency_keys (created_at);
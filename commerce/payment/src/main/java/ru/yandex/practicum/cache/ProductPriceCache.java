@@ -0,0 +1,121 @@
+package ru.yandex.practicum.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.client.ShoppingStoreClient;
+import ru.yandex.practicum.config.PriceCacheProperties;
+import ru.yandex.practicum.store.ProductDto;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class ProductPriceCache {
+
+    private static final String CACHE_NAME = "product-prices";
+
+    private final ShoppingStoreClient shoppingStoreClient;
+    private final PriceCacheProperties properties;
+    private final Cache<UUID, Double> prices;
+
+    /**
+     * Поколение кэша увеличивается при каждой инвалидации.
+     * Загрузка, во время которой пришло событие об изменении, не попадает в кэш.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Проверка поколения и запись в кэш выполняются под той же блокировкой, что и инвалидация:
+     * иначе событие, пришедшее между проверкой и записью, не помешало бы записать устаревшую цену.
+     */
+    private final Object writeLock = new Object();
+
+    public ProductPriceCache(ShoppingStoreClient shoppingStoreClient,
+                             PriceCacheProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.shoppingStoreClient = shoppingStoreClient;
+        this.properties = properties;
+        this.prices = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, prices, CACHE_NAME);
+    }
+
+    /**
+     * Получение цен товаров: из кэша, а отсутствующие — одним запросом к сервису витрины.
+     */
+    public Map<UUID, Double> getPrices(Collection<UUID> productIds) {
+        Map<UUID, Double> result = new HashMap<>(prices.getAllPresent(productIds));
+        Set<UUID> missing = new HashSet<>(productIds);
+        missing.removeAll(result.keySet());
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        for (int attempt = 1; attempt <= properties.getMaxLoadAttempts(); attempt++) {
+            long loadGeneration = generation.get();
+            Map<UUID, Double> loaded = loadPrices(missing);
+
+            if (putIfNotInvalidated(loaded, loadGeneration)) {
+                result.putAll(loaded);
+                return result;
+            }
+
+            // Во время загрузки пришло событие об изменении товара:
+            // полученные цены могли устареть, поэтому повторяем запрос.
+            log.debug("Price cache invalidated during load, retrying: attempt={}", attempt);
+        }
+
+        log.warn("Price cache is invalidated too often, using prices without caching");
+        result.putAll(loadPrices(missing));
+        return result;
+    }
+
+    /**
+     * Удаление цены товара из кэша.
+     */
+    public void invalidate(UUID productId) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            prices.invalidate(productId);
+        }
+        log.debug("Invalidated cached price for product {}", productId);
+    }
+
+    /**
+     * Полная очистка кэша.
+     */
+    public void invalidateAll() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            prices.invalidateAll();
+        }
+        log.debug("Invalidated all cached prices");
+    }
+
+    private boolean putIfNotInvalidated(Map<UUID, Double> loaded, long loadGeneration) {
+        synchronized (writeLock) {
+            if (generation.get() != loadGeneration) {
+                return false;
+            }
+            prices.putAll(loaded);
+            return true;
+        }
+    }
+
+    private Map<UUID, Double> loadPrices(Collection<UUID> productIds) {
+        Map<UUID, Double> loaded = new HashMap<>();
+        for (ProductDto product : shoppingStoreClient.getProducts(productIds)) {
+            loaded.put(product.getProductId(), product.getPrice());
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "payment.price-cache")
+public class PriceCacheProperties {
+
+    long maximumSize = 10_000;
+
+    Duration ttl = Duration.ofMinutes(5);
+
+    int maxLoadAttempts = 3;
+}
@@ -3,9 +3,11 @@ package ru.yandex.practicum.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.yandex.practicum.client.PaymentClient;
+import ru.yandex.practicum.idempotency.Idempotent;
 import ru.yandex.practicum.order.OrderDto;
 import ru.yandex.practicum.payment.PaymentDto;
 import ru.yandex.practicum.service.PaymentService;
@@ -21,7 +23,8 @@ public class PaymentController implements PaymentClient {
 
     @Override
     @PostMapping
-    public PaymentDto createPayment(@RequestBody OrderDto orderDto) {
+    public PaymentDto createPayment(@RequestBody OrderDto orderDto,
+                                    @RequestHeader(name = Idempotent.HEADER, required = false) String idempotencyKey) {
         return paymentService.createPayment(orderDto);
     }
 
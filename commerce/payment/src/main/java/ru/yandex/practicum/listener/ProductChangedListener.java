@@ -0,0 +1,45 @@
+package ru.yandex.practicum.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.cache.ProductPriceCache;
+import ru.yandex.practicum.store.ProductChangedEvent;
+
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductChangedListener implements ConsumerSeekAware {
+
+    private final ProductPriceCache priceCache;
+
+    /**
+     * Инвалидация цены товара по событию из сервиса витрины.
+     * Группа уникальна для каждого экземпляра, чтобы событие получили все экземпляры сервиса.
+     */
+    @KafkaListener(
+            topics = "${payment.topics.product-changes}",
+            groupId = "payment-price-cache-${random.uuid}")
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event == null || event.getProductId() == null) {
+            log.warn("Received product change event without product id, clearing price cache");
+            priceCache.invalidateAll();
+            return;
+        }
+        priceCache.invalidate(event.getProductId());
+    }
+
+    /**
+     * При (пере)назначении партиций события за время отсутствия подписки не получены,
+     * поэтому кэш очищается целиком.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        priceCache.invalidateAll();
+    }
+}
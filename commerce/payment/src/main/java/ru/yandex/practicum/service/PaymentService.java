@@ -5,8 +5,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.cache.ProductPriceCache;
 import ru.yandex.practicum.client.OrderClient;
-import ru.yandex.practicum.client.ShoppingStoreClient;
 import ru.yandex.practicum.enums.PaymentState;
 import ru.yandex.practicum.exception.NotEnoughInfoInOrderToCalculateException;
 import ru.yandex.practicum.mapper.PaymentToDtoMapper;
@@ -14,7 +14,6 @@ import ru.yandex.practicum.model.Payment;
 import ru.yandex.practicum.order.OrderDto;
 import ru.yandex.practicum.payment.PaymentDto;
 import ru.yandex.practicum.repository.PaymentRepository;
-import ru.yandex.practicum.store.ProductDto;
 
 import java.util.Map;
 import java.util.UUID;
@@ -28,7 +27,7 @@ public class PaymentService {
     private final PaymentRepository repository;
     private final PaymentToDtoMapper mapper;
     private final OrderClient orderClient;
-    private final ShoppingStoreClient shoppingStoreClient;
+    private final ProductPriceCache priceCache;
 
     /**
      * Формирование оплаты для заказа.
@@ -67,14 +66,20 @@ public class PaymentService {
     public Double calculateProductCost(OrderDto orderDto) {
         validateOrderForCalculation(orderDto);
 
+        Map<UUID, Double> prices = priceCache.getPrices(orderDto.getProducts().keySet());
+
         double totalCost = 0.0;
 
         for (Map.Entry<UUID, Long> entry : orderDto.getProducts().entrySet()) {
             UUID productId = entry.getKey();
             Long quantity = entry.getValue();
 
-            ProductDto product = shoppingStoreClient.getProduct(productId);
-            totalCost += product.getPrice() * quantity;
+            Double price = prices.get(productId);
+            if (price == null) {
+                throw new NotEnoughInfoInOrderToCalculateException(
+                        "Price is not defined for product: " + productId);
+            }
+            totalCost += price * quantity;
         }
 
         log.debug("Calculated product cost for order: orderId={}, cost={}",
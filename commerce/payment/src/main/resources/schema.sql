@@ -10,4 +10,17 @@ CREATE TABLE IF NOT EXISTS payment_service.payments (
     fee_total DOUBLE PRECISION,
     total_payment DOUBLE PRECISION,
     state VARCHAR(30) NOT NULL
-);
\ No newline at end of file
+);
+
+-- Ключи идемпотентности: ответ на первый запрос отдаётся повторам с тем же ключом
+CREATE TABLE IF NOT EXISTS payment_service.idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    response_body BYTEA,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at
+    ON payment_service.idempotency_keys (created_at);
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "shopping-cart.session")
+public class CartSessionProperties {
+
+    /**
+     * Количество шардов сессий; мутации в разных шардах не блокируют друг друга.
+     */
+    int shards = 16;
+
+    /**
+     * Интервал между сбросами изменённых корзин в БД.
+     */
+    Duration flushInterval = Duration.ofMillis(500);
+
+    /**
+     * Максимальное количество корзин в одном пакете записи в БД.
+     */
+    int flushBatchSize = 500;
+
+    /**
+     * Количество неудачных записей корзины подряд, после которого она откладывается до следующего изменения.
+     */
+    int maxFlushAttempts = 5;
+
+    /**
+     * Время, после которого сохранённая и неиспользуемая сессия выгружается из памяти.
+     */
+    Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Время простоя, после которого сохранённая сессия перечитывается из БД при следующем обращении.
+     * Пока пользователь обслуживался другим экземпляром, его корзина в памяти устарела.
+     */
+    Duration revalidateAfter = Duration.ofSeconds(30);
+
+    /**
+     * Каталог журнала изменений корзин.
+     */
+    Path journalDir = Path.of("cart-journal");
+
+    /**
+     * Принудительный fsync после каждой записи в журнал.
+     * Без него журнал переживает падение процесса, но не падение ОС.
+     */
+    boolean journalFsync = false;
+}
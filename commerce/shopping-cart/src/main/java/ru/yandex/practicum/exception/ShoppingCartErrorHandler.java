@@ -22,6 +22,17 @@ public class ShoppingCartErrorHandler {
                 .build();
     }
 
+    @ExceptionHandler(ProductInShoppingCartLowQuantityInWarehouseException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleLowQuantity(ProductInShoppingCartLowQuantityInWarehouseException e) {
+        log.warn("Insufficient stock in warehouse: {}", e.getMessage());
+        return ErrorResponse.builder()
+                .error("INSUFFICIENT_STOCK")
+                .message("Insufficient stock in warehouse")
+                .detail(e.getMessage())
+                .build();
+    }
+
     @ExceptionHandler(NotAuthorizedUserException.class)
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     public ErrorResponse handleNotAuthorizedUser(NotAuthorizedUserException e) {
@@ -3,26 +3,26 @@ package ru.yandex.practicum.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.cart.ChangeProductQuantityRequest;
 import ru.yandex.practicum.cart.ShoppingCartDto;
 import ru.yandex.practicum.client.WarehouseClient;
 import ru.yandex.practicum.exception.*;
-import ru.yandex.practicum.mapper.ShoppingCartToDtoMapper;
-import ru.yandex.practicum.model.*;
-import ru.yandex.practicum.repository.ShoppingCartRepository;
+import ru.yandex.practicum.model.ShoppingCartState;
+import ru.yandex.practicum.resilience.StockSnapshot;
+import ru.yandex.practicum.session.CartSession;
+import ru.yandex.practicum.session.CartSessionStore;
+import ru.yandex.practicum.warehouse.BookedProductsDto;
 
 import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional(readOnly = true)
 public class ShoppingCartService {
 
-    private final ShoppingCartRepository repository;
-    private final ShoppingCartToDtoMapper mapper;
+    private final CartSessionStore sessionStore;
     private final WarehouseClient warehouseClient;
+    private final StockSnapshot stockSnapshot;
 
     /**
      * Получение актуальной корзины пользователя.
@@ -31,93 +31,89 @@ public class ShoppingCartService {
     public ShoppingCartDto getCart(String username) {
         validateUsername(username);
 
-        ShoppingCart shoppingCart = repository.findByUsernameWithItems(username)
-                .orElseGet(() -> createNewCart(username));
+        ShoppingCartDto cart = sessionStore.read(username, true, this::toDto);
 
-        log.debug("Retrieved cart: {} for user: {}", shoppingCart.getShoppingCartId(), username);
+        log.debug("Retrieved cart: {} for user: {}", cart.getShoppingCartId(), username);
 
-        return mapper.toDto(shoppingCart);
+        return cart;
     }
 
     /**
      * Добавление товаров в корзину.
      * Проверка доступности товаров на складе.
      */
-    @Transactional
     public ShoppingCartDto addProducts(String username, Map<UUID, Long> products) {
         validateUsername(username);
 
         if (products == null || products.isEmpty()) {
             throw new IllegalArgumentException("Products cannot be null or empty");
         }
+        validateQuantities(products);
 
-        ShoppingCart shoppingCart = repository.findByUsernameWithItems(username)
-                .orElseGet(() -> createNewCart(username));
+        UUID cartId = sessionStore.read(username, true, CartSession::getShoppingCartId);
 
-        // Проверка активности корзины
-        checkCartActive(shoppingCart);
+        // Проверка доступности товаров на складе до изменения корзины
+        checkProductsAvailability(cartId, products);
 
-        // Добавление товаров в корзину
-        addProductsToCart(shoppingCart, products);
+        ShoppingCartDto cart = sessionStore.update(username, true, session -> {
+            // Проверка активности корзины
+            checkCartActive(session);
 
-        ShoppingCart savedCart = repository.save(shoppingCart);
-
-        // Проверка доступности товаров на складе
-        checkProductsAvailability(shoppingCart.getShoppingCartId(), products);
+            // Добавление товаров в корзину
+            products.forEach((productId, quantity) -> session.getProducts().merge(productId, quantity, Long::sum));
+            return toDto(session);
+        });
 
         log.info("Added products to cart: username={}, cartId={}, products={}",
-                username, shoppingCart.getShoppingCartId(), products);
+                username, cart.getShoppingCartId(), products);
 
-        return mapper.toDto(savedCart);
+        return cart;
     }
 
     /**
      * Деактивация корзины.
      * После деактивации корзина становится недоступной для изменений.
+     * Корзина сразу сохраняется в БД, так как используется для оформления заказа.
      */
-    @Transactional
     public void deactivate(String username) {
         validateUsername(username);
 
-        ShoppingCart shoppingCart = repository.findByUsernameWithItems(username)
-                .orElseGet(() -> createNewCart(username));
-
-        shoppingCart.setState(ShoppingCartState.DEACTIVATED);
-        repository.save(shoppingCart);
+        UUID cartId = sessionStore.update(username, true, session -> {
+            session.setState(ShoppingCartState.DEACTIVATED);
+            return session.getShoppingCartId();
+        });
+        sessionStore.flush(username);
 
-        log.info("Deactivated cart: username={}, cartId={}",
-                username, shoppingCart.getShoppingCartId());
+        log.info("Deactivated cart: username={}, cartId={}", username, cartId);
     }
 
     /**
      * Удаление товаров из корзины.
      * Проверка, что все указанные товары присутствуют в корзине.
      */
-    @Transactional
     public ShoppingCartDto removeProducts(String username, List<UUID> productIds) {
         validateUsername(username);
 
-        ShoppingCart shoppingCart = repository.findByUsernameWithItems(username)
-                .orElseThrow(() -> new NotFoundCartException("Cart not found for user: " + username));
-
-        checkCartActive(shoppingCart);
+        ShoppingCartDto cart = sessionStore.update(username, false, session -> {
+            // Проверка, что товары есть в корзине
+            if (productIds == null || productIds.stream().noneMatch(session.getProducts()::containsKey)) {
+                throw new NoProductsInShoppingCartException("Products not found in cart");
+            }
 
-        // Проверка, что товары есть в корзине
-        if (!shoppingCart.getItems().removeIf(i -> productIds.contains(i.getProductId()))) {
-            throw new NoProductsInShoppingCartException("Products not found in cart");
-        }
+            checkCartActive(session);
+            productIds.forEach(session.getProducts()::remove);
+            return toDto(session);
+        });
 
-        ShoppingCart saved = repository.save(shoppingCart);
         log.info("Removed products: user={}, productIds={}", username, productIds);
 
-        return mapper.toDto(saved);
+        return cart;
     }
 
     /**
      * Изменение количества товаров в корзине
      * При увеличении количества проверяет доступность на складе.
      */
-    @Transactional
     public ShoppingCartDto changeQuantity(String username, ChangeProductQuantityRequest request) {
         validateUsername(username);
 
@@ -125,33 +121,36 @@ public class ShoppingCartService {
             throw new IllegalArgumentException("Quantity must be positive");
         }
 
-        ShoppingCart shoppingCart = repository.findByUsernameWithItems(username)
-                .orElseThrow(() -> new NotFoundCartException("Cart not found for user: " + username));
-
-        checkCartActive(shoppingCart);
-
-        CartItem item = shoppingCart.getItems().stream()
-                .filter(i -> i.getProductId().equals(request.getProductId()))
-                .findFirst()
-                .orElseThrow(() -> new NoProductsInShoppingCartException("Product not found in cart"));
-
-        Long oldQuantity = item.getQuantity();
-        item.setQuantity(request.getNewQuantity());
-
-        ShoppingCart saved = repository.save(shoppingCart);
+        Long oldQuantity = sessionStore.read(username, false,
+                session -> session.getProducts().get(request.getProductId()));
+        if (oldQuantity == null) {
+            throw new NoProductsInShoppingCartException("Product not found in cart");
+        }
 
-        // Проверить доступность при увеличении
+        // Проверить доступность при увеличении: проверяется только изменённый товар
         if (request.getNewQuantity() > oldQuantity) {
-            ShoppingCartDto checkDto = mapper.toDto(saved);
-            warehouseClient.checkAvailability(checkDto);
+            BookedProductsDto booked = warehouseClient.checkProductAvailability(request);
+            if (booked.isPossiblyStale()) {
+                log.warn("Availability of product {} confirmed by stale stock snapshot", request.getProductId());
+            } else {
+                stockSnapshot.recordAvailable(request.getProductId(), request.getNewQuantity(), booked);
+            }
         }
 
-        item.setQuantity(request.getNewQuantity());
+        ShoppingCartDto cart = sessionStore.update(username, false, session -> {
+            if (!session.getProducts().containsKey(request.getProductId())) {
+                throw new NoProductsInShoppingCartException("Product not found in cart");
+            }
+
+            checkCartActive(session);
+            session.getProducts().put(request.getProductId(), request.getNewQuantity());
+            return toDto(session);
+        });
 
         log.info("Changed quantity: user={}, product={}, newQty={}",
                 username, request.getProductId(), request.getNewQuantity());
 
-        return mapper.toDto(saved);
+        return cart;
     }
 
     /**
@@ -166,7 +165,7 @@ public class ShoppingCartService {
     /**
      * Проверка, что корзина активна.
      */
-    private void checkCartActive(ShoppingCart cart) {
+    private void checkCartActive(CartSession cart) {
         if (cart.getState() == ShoppingCartState.DEACTIVATED) {
             cart.setState(ShoppingCartState.ACTIVE);
             log.info("Reactivated cart: cartId={}, user={}",
@@ -184,66 +183,32 @@ public class ShoppingCartService {
                 .products(products)
                 .build();
 
-        warehouseClient.checkAvailability(checkDto);
+        BookedProductsDto booked = warehouseClient.checkAvailability(checkDto);
+        if (booked.isPossiblyStale()) {
+            log.warn("Availability for cart {} confirmed by stale stock snapshot", cartId);
+        } else {
+            stockSnapshot.recordAvailable(products);
+        }
 
         log.debug("Products availability checked - cartId: {}, productsCount: {}",
                 cartId, products.size());
     }
 
     /**
-     * Создание новой корзины для пользователя.
+     * Проверка, что количество каждого добавляемого товара положительное.
      */
-    private ShoppingCart createNewCart(String username) {
-        ShoppingCart newCart = ShoppingCart.builder()
-                .shoppingCartId(UUID.randomUUID())
-                .username(username)
-                .state(ShoppingCartState.ACTIVE)
-                .items(new HashSet<>())
-                .build();
-
-        ShoppingCart savedCart = repository.save(newCart);
-        log.info("Created new cart: username={}, cartId={}",
-                username, savedCart.getShoppingCartId());
-
-        return savedCart;
-    }
-
-    /**
-     * Добавление товаров в корзину.
-     * Если товар уже есть - увеличивает количество.
-     * Если товара нет - добавляет новый.
-     */
-    private void addProductsToCart(ShoppingCart shoppingCart, Map<UUID, Long> products) {
-        Map<UUID, CartItem> itemMap = new HashMap<>();
-        for (CartItem item : shoppingCart.getItems()) {
-            itemMap.put(item.getProductId(), item);
-        }
-
+    private void validateQuantities(Map<UUID, Long> products) {
         for (Map.Entry<UUID, Long> entry : products.entrySet()) {
-            UUID productId = entry.getKey();
-            Long quantity = entry.getValue();
-
-            // Валидация количества
-            if (quantity == null || quantity <= 0) {
-                throw new IllegalArgumentException("Quantity must be positive for product: " + productId);
-            }
-
-            CartItem existingItem = itemMap.get(productId);
-
-            if (existingItem != null) {
-                // Увеличить количество существующего товара
-                existingItem.setQuantity(existingItem.getQuantity() + quantity);
-            } else {
-                // Добавить новый товар
-                CartItem newItem = CartItem.builder()
-                        .id(UUID.randomUUID())
-                        .shoppingCart(shoppingCart)
-                        .productId(productId)
-                        .quantity(quantity)
-                        .build();
-                shoppingCart.getItems().add(newItem);
-                itemMap.put(productId, newItem);
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product: " + entry.getKey());
             }
         }
     }
+
+    private ShoppingCartDto toDto(CartSession session) {
+        return ShoppingCartDto.builder()
+                .shoppingCartId(session.getShoppingCartId())
+                .products(new HashMap<>(session.getProducts()))
+                .build();
+    }
 }
@@ -0,0 +1,194 @@
+package ru.yandex.practicum.session;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.config.CartSessionProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Локальный журнал изменений корзин (append-only).
+ * <p>
+ * Каждая мутация записывает полный снимок корзины одной строкой JSON в текущий сегмент.
+ * Перед сбросом в БД сегмент ротируется; после успешной записи в БД старые сегменты удаляются.
+ * При старте сегменты проигрываются по порядку, последняя запись по пользователю побеждает.
+ */
+@Slf4j
+@Component
+public class CartJournal {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * ReentrantLock вместо synchronized: запись в файл под монитором закрепляет виртуальный поток за носителем.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+    private long currentSegment;
+
+    public CartJournal(CartSessionProperties properties, ObjectMapper objectMapper) {
+        this.directory = properties.getJournalDir();
+        this.fsync = properties.isJournalFsync();
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Чтение всех сегментов журнала и открытие нового сегмента для записи.
+     */
+    public Collection<CartSnapshot> replay() {
+        Map<String, CartSnapshot> latest = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            List<Long> segments = listSegments();
+            for (long segment : segments) {
+                readSegment(segment, latest);
+            }
+            currentSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+            openSegment(currentSegment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay cart journal in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+
+        log.info("Replayed cart journal: directory={}, carts={}", directory, latest.size());
+        return latest.values();
+    }
+
+    /**
+     * Добавление снимка корзины в текущий сегмент.
+     */
+    public void append(CartSnapshot snapshot) {
+        lock.lock();
+        try {
+            byte[] line = (objectMapper.writeValueAsString(snapshot) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to cart journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Закрытие текущего сегмента и открытие следующего.
+     *
+     * @return номер нового сегмента; все предыдущие можно удалить после успешного сброса в БД
+     */
+    public long rotate() {
+        lock.lock();
+        try {
+            openSegment(currentSegment + 1);
+            return currentSegment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate cart journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаление сегментов с номером меньше указанного.
+     */
+    public void deleteSegmentsBefore(long segment) {
+        lock.lock();
+        try {
+            for (long existing : listSegments()) {
+                if (existing < segment) {
+                    Files.deleteIfExists(segmentPath(existing));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete old cart journal segments: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close cart journal: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentSegment = segment;
+    }
+
+    private void readSegment(long segment, Map<String, CartSnapshot> latest) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(segmentPath(segment), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    CartSnapshot snapshot = objectMapper.readValue(line, CartSnapshot.class);
+                    latest.remove(snapshot.username());
+                    latest.put(snapshot.username(), snapshot);
+                } catch (JsonProcessingException e) {
+                    // Недописанная последняя строка после падения процесса
+                    log.warn("Skipping corrupted record in cart journal segment {}", segment);
+                }
+            }
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+}
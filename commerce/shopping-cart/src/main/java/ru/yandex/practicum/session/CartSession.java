@@ -0,0 +1,58 @@
+package ru.yandex.practicum.session;
+
+import lombok.Getter;
+import ru.yandex.practicum.model.ShoppingCartState;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Состояние корзины пользователя в памяти.
+ * Доступ к сессии выполняется только под блокировкой её шарда.
+ */
+@Getter
+public class CartSession {
+
+    private UUID shoppingCartId;
+    private final String username;
+    private final Map<UUID, Long> products;
+    private ShoppingCartState state;
+    private boolean dirty;
+    private long lastAccessNanos;
+
+    CartSession(CartSnapshot snapshot) {
+        this.shoppingCartId = snapshot.shoppingCartId();
+        this.username = snapshot.username();
+        this.state = snapshot.state();
+        this.products = new LinkedHashMap<>(snapshot.products());
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    public void setState(ShoppingCartState state) {
+        this.state = state;
+    }
+
+    CartSnapshot snapshot() {
+        return new CartSnapshot(shoppingCartId, username, state, Map.copyOf(products));
+    }
+
+    /**
+     * Замена идентификатора на уже сохранённый в БД, если корзину пользователя первым записал другой экземпляр.
+     */
+    void adoptShoppingCartId(UUID shoppingCartId) {
+        this.shoppingCartId = shoppingCartId;
+    }
+
+    void markDirty() {
+        dirty = true;
+    }
+
+    void markClean() {
+        dirty = false;
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+}
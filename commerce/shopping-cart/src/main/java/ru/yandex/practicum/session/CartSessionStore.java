@@ -0,0 +1,402 @@
+package ru.yandex.practicum.session;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.config.CartSessionProperties;
+import ru.yandex.practicum.exception.NotFoundCartException;
+import ru.yandex.practicum.model.CartItem;
+import ru.yandex.practicum.model.ShoppingCart;
+import ru.yandex.practicum.model.ShoppingCartState;
+import ru.yandex.practicum.repository.ShoppingCartRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Слой сессий корзин в памяти с отложенной записью в БД (write-behind).
+ * <p>
+ * Сессии распределены по шардам по имени пользователя; мутация выполняется под блокировкой шарда,
+ * записывается в локальный журнал и помечает сессию изменённой. Изменённые сессии периодически
+ * сбрасываются в БД одним пакетом, так что несколько изменений одной корзины объединяются в одну запись.
+ * <p>
+ * Сессии хранятся в памяти одного экземпляра, поэтому запросы одного пользователя должны приходить
+ * на один и тот же экземпляр: gateway выбирает его хешированием username. При смене состава экземпляров
+ * пользователь может переехать и вернуться, поэтому сохранённая сессия, простаивавшая дольше revalidate-after,
+ * перечитывается из БД. Если два экземпляра всё же создали корзину одному пользователю, корзина в БД
+ * сопоставляется по имени пользователя, и экземпляр принимает уже сохранённый идентификатор.
+ * <p>
+ * Каждый пакет записывается независимо; сбойный пакет повторяется по одной корзине, и незаписанные корзины
+ * возвращаются в очередь, не мешая усечению журнала для остальных.
+ */
+@Slf4j
+@Component
+public class CartSessionStore {
+
+    private final ShoppingCartRepository repository;
+    private final CartSessionWriter writer;
+    private final CartJournal journal;
+    private final CartSessionProperties properties;
+    private final Shard[] shards;
+
+    /**
+     * Мутации берут блокировку на чтение, ротация журнала при сбросе — на запись,
+     * чтобы снимок изменённых сессий точно соответствовал закрытым сегментам журнала.
+     */
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    /**
+     * Не более одного сброса одновременно.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Количество неудачных записей подряд по пользователю. Доступ только под flushLock.
+     */
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+
+    /**
+     * Корзины, отложенные после maxFlushAttempts неудачных записей. Изменяется только под flushLock,
+     * читается и при обращении к сессии.
+     */
+    private final Map<String, CartSnapshot> parked = new ConcurrentHashMap<>();
+
+    public CartSessionStore(ShoppingCartRepository repository,
+                            CartSessionWriter writer,
+                            CartJournal journal,
+                            CartSessionProperties properties) {
+        this.repository = repository;
+        this.writer = writer;
+        this.journal = journal;
+        this.properties = properties;
+        this.shards = new Shard[properties.getShards()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Восстановление несохранённых изменений из журнала после перезапуска.
+     */
+    @PostConstruct
+    void recover() {
+        Collection<CartSnapshot> recovered = journal.replay();
+        for (CartSnapshot snapshot : recovered) {
+            CartSession session = new CartSession(snapshot);
+            session.markDirty();
+            shardFor(snapshot.username()).sessions.put(snapshot.username(), session);
+        }
+        if (!recovered.isEmpty()) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush recovered carts, will retry on schedule: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Чтение корзины без изменения.
+     *
+     * @param createIfAbsent создать корзину, если её нет; иначе выбрасывается {@link NotFoundCartException}
+     */
+    public <T> T read(String username, boolean createIfAbsent, Function<CartSession, T> reader) {
+        Shard shard = shardFor(username);
+        checkpointLock.readLock().lock();
+        shard.lock.lock();
+        try {
+            CartSession session = createIfAbsent ? getOrLoad(shard, username) : getExisting(shard, username);
+            session.touch();
+            return reader.apply(session);
+        } finally {
+            shard.lock.unlock();
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Изменение корзины в памяти с записью снимка в журнал.
+     * Функция должна выполнить все проверки до изменения сессии: при исключении журнал не пишется.
+     *
+     * @param createIfAbsent создать корзину, если её нет; иначе выбрасывается {@link NotFoundCartException}
+     */
+    public <T> T update(String username, boolean createIfAbsent, Function<CartSession, T> mutation) {
+        Shard shard = shardFor(username);
+        checkpointLock.readLock().lock();
+        shard.lock.lock();
+        try {
+            CartSession session = createIfAbsent ? getOrLoad(shard, username) : getExisting(shard, username);
+            session.touch();
+            T result = mutation.apply(session);
+            journal.append(session.snapshot());
+            session.markDirty();
+            return result;
+        } finally {
+            shard.lock.unlock();
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сброс всех изменённых сессий в БД пакетами.
+     * После записи удаляются сегменты журнала, закрытые перед сбросом; незаписанные корзины перед этим
+     * повторно попадают в текущий сегмент.
+     */
+    @Scheduled(fixedDelayString = "${shopping-cart.session.flush-interval:500ms}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            doFlush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Немедленная запись корзины одного пользователя, не дожидаясь планового сброса.
+     * Журнал не усекается: снимок остаётся в текущем сегменте до ближайшего планового сброса.
+     *
+     * @throws RuntimeException если запись не удалась; корзина остаётся изменённой и будет записана позже
+     */
+    public void flush(String username) {
+        flushLock.lock();
+        try {
+            CartSnapshot snapshot = takeDirty(username);
+            if (snapshot == null) {
+                return;
+            }
+            try {
+                adoptPersistedIds(writer.write(List.of(snapshot)));
+                failedAttempts.remove(username);
+            } catch (RuntimeException e) {
+                requeue(List.of(snapshot));
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void doFlush() {
+        List<CartSnapshot> dirty = new ArrayList<>();
+        long segment;
+
+        checkpointLock.writeLock().lock();
+        try {
+            segment = journal.rotate();
+            long idleBefore = System.nanoTime() - properties.getIdleTimeout().toNanos();
+            for (Shard shard : shards) {
+                Iterator<CartSession> iterator = shard.sessions.values().iterator();
+                while (iterator.hasNext()) {
+                    CartSession session = iterator.next();
+                    if (session.isDirty()) {
+                        dirty.add(session.snapshot());
+                        session.markClean();
+                        parked.remove(session.getUsername());
+                    } else if (!parked.containsKey(session.getUsername())
+                            && session.getLastAccessNanos() - idleBefore < 0) {
+                        iterator.remove();
+                    }
+                }
+            }
+            // Отложенные корзины не записаны в БД: переносим их в новый сегмент, иначе они пропадут при усечении
+            parked.values().forEach(journal::append);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+
+        List<CartSnapshot> failed = new ArrayList<>();
+        int batchSize = properties.getFlushBatchSize();
+        for (int from = 0; from < dirty.size(); from += batchSize) {
+            failed.addAll(writeBatch(dirty.subList(from, Math.min(from + batchSize, dirty.size()))));
+        }
+        requeue(failed);
+
+        journal.deleteSegmentsBefore(segment);
+        if (!dirty.isEmpty()) {
+            log.debug("Flushed {} carts to database, {} failed", dirty.size() - failed.size(), failed.size());
+        }
+    }
+
+    /**
+     * Запись пакета; при ошибке пакет записывается по одной корзине, чтобы отделить сбойные строки от остальных.
+     *
+     * @return снимки, которые не удалось записать
+     */
+    private List<CartSnapshot> writeBatch(List<CartSnapshot> batch) {
+        try {
+            adoptPersistedIds(writer.write(batch));
+            batch.forEach(snapshot -> failedAttempts.remove(snapshot.username()));
+            return List.of();
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.warn("Failed to flush cart: username={}, cartId={}: {}",
+                        batch.get(0).username(), batch.get(0).shoppingCartId(), e.getMessage());
+                return batch;
+            }
+            log.warn("Failed to flush batch of {} carts, retrying one by one: {}", batch.size(), e.getMessage());
+            List<CartSnapshot> failed = new ArrayList<>();
+            for (CartSnapshot snapshot : batch) {
+                failed.addAll(writeBatch(List.of(snapshot)));
+            }
+            return failed;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush carts on shutdown, changes are kept in journal", e);
+        } finally {
+            journal.close();
+        }
+    }
+
+    /**
+     * Возврат незаписанных корзин в очередь с повторной записью в текущий сегмент журнала,
+     * чтобы усечение старых сегментов их не потеряло. После maxFlushAttempts неудач подряд
+     * корзина откладывается и повторно пишется в БД только после следующего изменения.
+     */
+    private void requeue(List<CartSnapshot> snapshots) {
+        for (CartSnapshot snapshot : snapshots) {
+            String username = snapshot.username();
+            int attempts = failedAttempts.merge(username, 1, Integer::sum);
+            Shard shard = shardFor(username);
+            checkpointLock.readLock().lock();
+            shard.lock.lock();
+            try {
+                CartSession session = shard.sessions.get(username);
+                if (session == null || session.isDirty()) {
+                    // Более новое состояние уже в текущем сегменте журнала и будет записано следующим сбросом
+                    continue;
+                }
+                CartSnapshot current = session.snapshot();
+                journal.append(current);
+                if (attempts >= properties.getMaxFlushAttempts()) {
+                    parked.put(username, current);
+                    log.error("Cart set aside after {} failed flush attempts: username={}, cartId={}",
+                            attempts, username, current.shoppingCartId());
+                } else {
+                    session.markDirty();
+                }
+            } finally {
+                shard.lock.unlock();
+                checkpointLock.readLock().unlock();
+            }
+        }
+    }
+
+    private CartSnapshot takeDirty(String username) {
+        Shard shard = shardFor(username);
+        checkpointLock.readLock().lock();
+        shard.lock.lock();
+        try {
+            CartSession session = shard.sessions.get(username);
+            if (session == null || !session.isDirty()) {
+                return null;
+            }
+            session.markClean();
+            parked.remove(username);
+            return session.snapshot();
+        } finally {
+            shard.lock.unlock();
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private void adoptPersistedIds(Map<String, UUID> persistedIds) {
+        persistedIds.forEach((username, cartId) -> {
+            Shard shard = shardFor(username);
+            shard.lock.lock();
+            try {
+                CartSession session = shard.sessions.get(username);
+                if (session != null) {
+                    log.warn("Cart of user {} was already saved by another instance, adopting cartId={} instead of {}",
+                            username, cartId, session.getShoppingCartId());
+                    session.adoptShoppingCartId(cartId);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        });
+    }
+
+    private CartSession getOrLoad(Shard shard, String username) {
+        CartSession session = cached(shard, username);
+        if (session != null) {
+            return session;
+        }
+
+        session = repository.findByUsernameWithItems(username)
+                .map(cart -> new CartSession(toSnapshot(cart)))
+                .orElseGet(() -> newSession(username));
+        shard.sessions.put(username, session);
+        return session;
+    }
+
+    private CartSession getExisting(Shard shard, String username) {
+        CartSession session = cached(shard, username);
+        if (session != null) {
+            return session;
+        }
+
+        session = repository.findByUsernameWithItems(username)
+                .map(cart -> new CartSession(toSnapshot(cart)))
+                .orElseThrow(() -> new NotFoundCartException("Cart not found for user: " + username));
+        shard.sessions.put(username, session);
+        return session;
+    }
+
+    /**
+     * Сессия из памяти, если ей можно доверять. Сохранённая сессия, простаивавшая дольше revalidate-after,
+     * отбрасывается: пока пользователь обслуживался другим экземпляром, корзина в БД могла измениться.
+     * Несохранённые и отложенные сессии не отбрасываются - их изменений ещё нет в БД. Во время сброса
+     * сессия тоже не отбрасывается: она уже помечена сохранённой, но запись в БД могла ещё не завершиться.
+     */
+    private CartSession cached(Shard shard, String username) {
+        CartSession session = shard.sessions.get(username);
+        if (session == null || session.isDirty() || parked.containsKey(username) || flushLock.isLocked()) {
+            return session;
+        }
+        long idleNanos = System.nanoTime() - session.getLastAccessNanos();
+        if (idleNanos > properties.getRevalidateAfter().toNanos()) {
+            shard.sessions.remove(username);
+            log.debug("Reloading cart of user {} from database after {} ms idle", username, idleNanos / 1_000_000);
+            return null;
+        }
+        return session;
+    }
+
+    private CartSession newSession(String username) {
+        CartSession session = new CartSession(
+                new CartSnapshot(UUID.randomUUID(), username, ShoppingCartState.ACTIVE, Map.of()));
+        journal.append(session.snapshot());
+        session.markDirty();
+        log.info("Created new cart: username={}, cartId={}", username, session.getShoppingCartId());
+        return session;
+    }
+
+    private CartSnapshot toSnapshot(ShoppingCart cart) {
+        Map<UUID, Long> products = new LinkedHashMap<>();
+        for (CartItem item : cart.getItems()) {
+            products.put(item.getProductId(), item.getQuantity());
+        }
+        return new CartSnapshot(cart.getShoppingCartId(), cart.getUsername(), cart.getState(), products);
+    }
+
+    private Shard shardFor(String username) {
+        return shards[Math.floorMod(username.hashCode(), shards.length)];
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, CartSession> sessions = new HashMap<>();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.session;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Пакетная запись снимков корзин в shopping_cart.carts и cart_items.
+ * Позиции обновляются по (shopping_cart_id, product_id), поэтому их идентификаторы не меняются.
+ * <p>
+ * Корзина сопоставляется с записью в БД по имени пользователя: два экземпляра сервиса могут независимо
+ * создать корзину одному пользователю с разными идентификаторами, и побеждает уже сохранённый идентификатор.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartSessionWriter {
+
+    private static final String UPSERT_CART = """
+            INSERT INTO shopping_cart.carts (shopping_cart_id, username, state)
+            VALUES (?, ?, ?)
+            ON CONFLICT (username) DO UPDATE SET state = EXCLUDED.state
+            """;
+
+    private static final String SELECT_CART_IDS = """
+            SELECT username, shopping_cart_id FROM shopping_cart.carts
+            WHERE username = ANY (?)
+            """;
+
+    private static final String DELETE_REMOVED_ITEMS = """
+            DELETE FROM shopping_cart.cart_items
+            WHERE shopping_cart_id = ? AND NOT (product_id = ANY (?))
+            """;
+
+    private static final String UPSERT_ITEM = """
+            INSERT INTO shopping_cart.cart_items (id, shopping_cart_id, product_id, quantity)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (shopping_cart_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Запись пакета снимков одной транзакцией.
+     *
+     * @return идентификаторы корзин, сохранённые в БД, для пользователей, у которых они отличаются от снимка
+     */
+    @Transactional
+    public Map<String, UUID> write(List<CartSnapshot> snapshots) {
+        jdbcTemplate.batchUpdate(UPSERT_CART, snapshots, snapshots.size(), (ps, cart) -> {
+            ps.setObject(1, cart.shoppingCartId());
+            ps.setString(2, cart.username());
+            ps.setString(3, cart.state().name());
+        });
+
+        Map<String, UUID> persistedIds = findCartIds(snapshots);
+
+        jdbcTemplate.batchUpdate(DELETE_REMOVED_ITEMS, snapshots, snapshots.size(), (ps, cart) -> {
+            Array productIds = ps.getConnection().createArrayOf("uuid", cart.products().keySet().toArray());
+            ps.setObject(1, persistedIds.get(cart.username()));
+            ps.setArray(2, productIds);
+        });
+
+        List<Object[]> items = new ArrayList<>();
+        Map<String, UUID> replacedIds = new HashMap<>();
+        for (CartSnapshot cart : snapshots) {
+            UUID cartId = persistedIds.get(cart.username());
+            if (!cartId.equals(cart.shoppingCartId())) {
+                replacedIds.put(cart.username(), cartId);
+            }
+            for (Map.Entry<UUID, Long> product : cart.products().entrySet()) {
+                items.add(new Object[]{UUID.randomUUID(), cartId, product.getKey(), product.getValue()});
+            }
+        }
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_ITEM, items);
+        }
+        return replacedIds;
+    }
+
+    private Map<String, UUID> findCartIds(List<CartSnapshot> snapshots) {
+        Object[] usernames = snapshots.stream().map(CartSnapshot::username).toArray();
+        Map<String, UUID> cartIds = new HashMap<>();
+        jdbcTemplate.query(SELECT_CART_IDS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", usernames)),
+                rs -> {
+                    cartIds.put(rs.getString("username"), rs.getObject("shopping_cart_id", UUID.class));
+                });
+        return cartIds;
+    }
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.session;
+
+import ru.yandex.practicum.model.ShoppingCartState;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Полное состояние корзины на момент изменения: запись журнала и единица записи в БД.
+ */
+public record CartSnapshot(UUID shoppingCartId, String username, ShoppingCartState state, Map<UUID, Long> products) {
+}
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.cache;
+
+/**
+ * Значение из кэша витрины вместе с его ETag, вычисленным при загрузке.
+ */
+public record CachedValue<T>(T value, String etag) {
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.cache;
+
+import org.springframework.data.domain.Sort;
+import ru.yandex.practicum.enums.ProductCategory;
+
+/**
+ * Ключ страницы каталога в кэше.
+ */
+public record CatalogPageKey(ProductCategory category, int page, int size, Sort sort) {
+}
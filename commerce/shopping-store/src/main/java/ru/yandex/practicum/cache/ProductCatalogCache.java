@@ -0,0 +1,159 @@
+package ru.yandex.practicum.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import ru.yandex.practicum.config.CatalogCacheProperties;
+import ru.yandex.practicum.store.ProductChangedEvent;
+import ru.yandex.practicum.store.ProductDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class ProductCatalogCache {
+
+    private final Cache<UUID, CachedValue<ProductDto>> products;
+    private final Cache<CatalogPageKey, CachedValue<Page<ProductDto>>> pages;
+
+    /**
+     * Поколение кэша увеличивается при каждой инвалидации.
+     * Значение, загрузка которого началась до изменения товара, в кэш не попадает.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Общая для записи и инвалидации: проверка поколения и put не должны разделяться событием об изменении.
+     */
+    private final Object writeLock = new Object();
+
+    public ProductCatalogCache(CatalogCacheProperties properties, MeterRegistry meterRegistry) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxProducts())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxPages())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "catalog-products");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "catalog-pages");
+    }
+
+    /**
+     * Получение товара из кэша или загрузка через loader.
+     * ProductDto изменяемый, поэтому кэш хранит свою копию и каждому вызывающему отдаёт отдельную.
+     */
+    public CachedValue<ProductDto> getProduct(UUID productId, Supplier<ProductDto> loader) {
+        CachedValue<ProductDto> cached = products.getIfPresent(productId);
+        if (cached == null) {
+            long loadGeneration = generation.get();
+            ProductDto product = copy(loader.get());
+            cached = new CachedValue<>(product, etag(product));
+            putIfNotInvalidated(products, productId, cached, loadGeneration);
+        }
+        return new CachedValue<>(copy(cached.value()), cached.etag());
+    }
+
+    /**
+     * Получение страницы каталога из кэша или загрузка через loader.
+     */
+    public CachedValue<Page<ProductDto>> getPage(CatalogPageKey key, Supplier<Page<ProductDto>> loader) {
+        CachedValue<Page<ProductDto>> cached = pages.getIfPresent(key);
+        if (cached == null) {
+            long loadGeneration = generation.get();
+            Page<ProductDto> page = copy(loader.get());
+            cached = new CachedValue<>(page, etag(page));
+            putIfNotInvalidated(pages, key, cached, loadGeneration);
+        }
+        return new CachedValue<>(copy(cached.value()), cached.etag());
+    }
+
+    /**
+     * Инвалидация товара и всех страниц каталога.
+     * Товар мог сменить категорию, поэтому страницы сбрасываются целиком.
+     */
+    public void invalidate(UUID productId) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            if (productId != null) {
+                products.invalidate(productId);
+            } else {
+                products.invalidateAll();
+            }
+            pages.invalidateAll();
+        }
+        log.debug("Invalidated catalog cache for product {}", productId);
+    }
+
+    /**
+     * Локальная инвалидация сразу после фиксации транзакции, не дожидаясь события из Kafka.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    private <K, V> void putIfNotInvalidated(Cache<K, V> cache, K key, V value, long loadGeneration) {
+        synchronized (writeLock) {
+            if (generation.get() == loadGeneration) {
+                cache.put(key, value);
+            }
+        }
+    }
+
+    private static ProductDto copy(ProductDto product) {
+        return new ProductDto(product.getProductId(), product.getProductName(), product.getDescription(),
+                product.getImageSrc(), product.getQuantityState(), product.getProductState(),
+                product.getProductCategory(), product.getPrice());
+    }
+
+    private static Page<ProductDto> copy(Page<ProductDto> page) {
+        return new PageImpl<>(page.getContent().stream().map(ProductCatalogCache::copy).toList(),
+                page.getPageable(), page.getTotalElements());
+    }
+
+    private static String etag(ProductDto product) {
+        StringBuilder builder = new StringBuilder();
+        appendProduct(builder, product);
+        return toETag(builder);
+    }
+
+    private static String etag(Page<ProductDto> page) {
+        StringBuilder builder = new StringBuilder()
+                .append(page.getNumber()).append('|')
+                .append(page.getSize()).append('|')
+                .append(page.getTotalElements()).append('|')
+                .append(page.getSort()).append('|');
+        page.forEach(product -> appendProduct(builder, product));
+        return toETag(builder);
+    }
+
+    private static void appendProduct(StringBuilder builder, ProductDto product) {
+        builder.append(product.getProductId()).append('|')
+                .append(product.getProductName()).append('|')
+                .append(product.getDescription()).append('|')
+                .append(product.getImageSrc()).append('|')
+                .append(product.getQuantityState()).append('|')
+                .append(product.getProductState()).append('|')
+                .append(product.getProductCategory()).append('|')
+                .append(product.getPrice()).append(';');
+    }
+
+    private static String toETag(CharSequence content) {
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
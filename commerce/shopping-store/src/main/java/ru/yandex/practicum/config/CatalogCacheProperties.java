@@ -0,0 +1,22 @@
+package ru.yandex.practicum.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "shopping-store.cache")
+public class CatalogCacheProperties {
+
+    long maxProducts = 10_000;
+
+    long maxPages = 1_000;
+
+    Duration ttl = Duration.ofMinutes(10);
+}
@@ -5,12 +5,19 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.yandex.practicum.cache.CachedValue;
 import ru.yandex.practicum.client.ShoppingStoreClient;
 import ru.yandex.practicum.enums.ProductCategory;
 import ru.yandex.practicum.service.ShoppingStoreService;
 import ru.yandex.practicum.store.ProductDto;
+import ru.yandex.practicum.store.ProductKeysetPageDto;
 import ru.yandex.practicum.store.SetProductQuantityStateRequest;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -24,7 +31,21 @@ public class ShoppingStoreController implements ShoppingStoreClient {
     @GetMapping
     public Page<ProductDto> getProducts(@RequestParam(name = "category") ProductCategory category,
                                           Pageable pageable) {
-        return shoppingStoreService.getProductsByCategory(category, pageable);
+        return withETag(shoppingStoreService.getProductsByCategoryCached(category, pageable));
+    }
+
+    @Override
+    @GetMapping("/seek")
+    public ProductKeysetPageDto getProductsAfter(@RequestParam(name = "category") ProductCategory category,
+                                                 @RequestParam(name = "cursor", required = false) String cursor,
+                                                 @RequestParam(name = "size", defaultValue = "20") int size) {
+        return shoppingStoreService.getProductsAfter(category, cursor, size);
+    }
+
+    @Override
+    @GetMapping("/search")
+    public Page<ProductDto> searchProducts(@RequestParam(name = "query") String query, Pageable pageable) {
+        return shoppingStoreService.searchProducts(query, pageable);
     }
 
     @Override
@@ -54,6 +75,29 @@ public class ShoppingStoreController implements ShoppingStoreClient {
     @Override
     @GetMapping("/{productId}")
     public ProductDto getProduct(@PathVariable UUID productId) {
-        return shoppingStoreService.getProduct(productId);
+        return withETag(shoppingStoreService.getProductCached(productId));
+    }
+
+    @Override
+    @PostMapping("/batch")
+    public List<ProductDto> getProducts(@RequestBody Collection<UUID> productIds) {
+        return shoppingStoreService.getProducts(productIds);
+    }
+
+    /**
+     * Установка ETag и проверка If-None-Match.
+     * Если клиент уже имеет актуальную версию, возвращается 304 без тела и без сериализации.
+     */
+    private <T> T withETag(CachedValue<T> cached) {
+        if (cached.etag() == null) {
+            return cached.value();
+        }
+
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        ServletWebRequest webRequest = new ServletWebRequest(attributes.getRequest(), attributes.getResponse());
+        if (webRequest.checkNotModified(cached.etag())) {
+            return null;
+        }
+        return cached.value();
     }
 }
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.store.ProductChangedEvent;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductChangedEventSender {
+
+    private final KafkaTemplate<String, ProductChangedEvent> kafkaTemplate;
+
+    @Value("${shopping-store.topics.product-changes}")
+    private String productChangesTopic;
+
+    /**
+     * Отправка события об изменении товара в Kafka после успешной фиксации транзакции.
+     * Ключ сообщения — ID товара, чтобы события одного товара шли в порядке изменений.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void send(ProductChangedEvent event) {
+        kafkaTemplate.send(productChangesTopic, event.getProductId().toString(), event)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.error("Failed to publish product change event for product {}",
+                                event.getProductId(), e);
+                    } else {
+                        log.debug("Published product change event for product {}", event.getProductId());
+                    }
+                });
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.cache.ProductCatalogCache;
+import ru.yandex.practicum.store.ProductChangedEvent;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class ProductChangedListener implements ConsumerSeekAware {
+
+    private final ProductCatalogCache catalogCache;
+
+    /**
+     * Инвалидация кэша по изменениям, сделанным другими экземплярами сервиса.
+     * Группа уникальна для каждого экземпляра, чтобы событие получили все экземпляры.
+     */
+    @KafkaListener(
+            topics = "${shopping-store.topics.product-changes}",
+            groupId = "shopping-store-catalog-cache-${random.uuid}")
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogCache.invalidate(event == null ? null : event.getProductId());
+    }
+
+    /**
+     * События за время отсутствия подписки не получены, поэтому кэш очищается целиком.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        catalogCache.invalidate(null);
+    }
+}
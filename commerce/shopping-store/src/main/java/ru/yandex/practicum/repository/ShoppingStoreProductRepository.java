@@ -3,11 +3,49 @@ package ru.yandex.practicum.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.yandex.practicum.enums.ProductCategory;
 import ru.yandex.practicum.model.Product;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface ShoppingStoreProductRepository extends JpaRepository<Product, UUID> {
     Page<Product> findByProductCategory(ProductCategory productCategory, Pageable pageable);
+
+    @Query(value = """
+            SELECT * FROM shopping_store.products
+            WHERE product_category = :category
+            ORDER BY product_name, product_id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Product> findFirstByCategory(@Param("category") String category,
+                                      @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM shopping_store.products
+            WHERE product_category = :category
+              AND (product_name, product_id) > (:productName, :productId)
+            ORDER BY product_name, product_id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Product> findNextByCategory(@Param("category") String category,
+                                     @Param("productName") String productName,
+                                     @Param("productId") UUID productId,
+                                     @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM shopping_store.products
+            WHERE product_state = 'ACTIVE'
+              AND search_vector @@ to_tsquery('simple', :query)
+            ORDER BY ts_rank(search_vector, to_tsquery('simple', :query)) DESC, product_id
+            """,
+            countQuery = """
+            SELECT count(*) FROM shopping_store.products
+            WHERE product_state = 'ACTIVE'
+              AND search_vector @@ to_tsquery('simple', :query)
+            """,
+            nativeQuery = true)
+    Page<Product> search(@Param("query") String query, Pageable pageable);
 }
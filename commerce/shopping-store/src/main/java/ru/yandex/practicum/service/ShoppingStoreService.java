@@ -2,19 +2,29 @@ package ru.yandex.practicum.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.cache.CachedValue;
+import ru.yandex.practicum.cache.CatalogPageKey;
+import ru.yandex.practicum.cache.ProductCatalogCache;
 import ru.yandex.practicum.enums.*;
 import ru.yandex.practicum.exception.NotFoundProductException;
 import ru.yandex.practicum.mapper.ProductToDtoMapper;
 import ru.yandex.practicum.model.Product;
 import ru.yandex.practicum.repository.ShoppingStoreProductRepository;
+import ru.yandex.practicum.store.ProductChangedEvent;
 import ru.yandex.practicum.store.ProductDto;
+import ru.yandex.practicum.store.ProductKeysetPageDto;
 import ru.yandex.practicum.store.SetProductQuantityStateRequest;
 
-import java.util.UUID;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -22,15 +32,94 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class ShoppingStoreService {
 
+    private static final int MAX_KEYSET_PAGE_SIZE = 100;
+    private static final Pattern SEARCH_WORD_SPLITTER = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     private final ShoppingStoreProductRepository repository;
     private final ProductToDtoMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCatalogCache catalogCache;
 
     /**
      * Получение списка товаров по категории в пагинированном виде.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<ProductDto> getProductsByCategory(ProductCategory category, Pageable pageable) {
-        log.debug("Getting products by category: {}", category);
-        return repository.findByProductCategory(category, pageable)
+        return getProductsByCategoryCached(category, pageable).value();
+    }
+
+    /**
+     * Получение страницы товаров по категории вместе с ETag через кэш каталога.
+     * Непагинированные запросы не кэшируются. При попадании в кэш транзакция не открывается.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CachedValue<Page<ProductDto>> getProductsByCategoryCached(ProductCategory category, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            Page<ProductDto> page = loadProductsByCategory(category, pageable);
+            return new CachedValue<>(page, null);
+        }
+
+        CatalogPageKey key = new CatalogPageKey(category, pageable.getPageNumber(),
+                pageable.getPageSize(), pageable.getSort());
+        return catalogCache.getPage(key, () -> loadProductsByCategory(category, pageable));
+    }
+
+    /**
+     * Получение страницы товаров категории после курсора (keyset-пагинация).
+     * Запрос идёт по индексу (product_category, product_name, product_id) без OFFSET и подсчёта общего числа.
+     */
+    public ProductKeysetPageDto getProductsAfter(ProductCategory category, String cursor, int size) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        if (size < 1 || size > MAX_KEYSET_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_KEYSET_PAGE_SIZE);
+        }
+
+        // Запрашиваем на одну запись больше, чтобы узнать о наличии следующей страницы
+        List<Product> products;
+        if (cursor == null || cursor.isBlank()) {
+            products = repository.findFirstByCategory(category.name(), size + 1);
+        } else {
+            ProductCursor after = ProductCursor.decode(cursor);
+            products = repository.findNextByCategory(category.name(), after.productName(),
+                    after.productId(), size + 1);
+        }
+
+        boolean hasNext = products.size() > size;
+        List<Product> page = hasNext ? products.subList(0, size) : products;
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = page.get(page.size() - 1);
+            nextCursor = new ProductCursor(last.getProductName(), last.getProductId()).encode();
+        }
+
+        log.debug("Getting products by category after cursor: category={}, size={}, hasNext={}",
+                category, page.size(), hasNext);
+        return ProductKeysetPageDto.builder()
+                .content(page.stream().map(mapper::toDto).toList())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    /**
+     * Полнотекстовый поиск активных товаров по названию и описанию.
+     * Каждое слово запроса ищется по префиксу, результаты упорядочены по релевантности.
+     */
+    public Page<ProductDto> searchProducts(String query, Pageable pageable) {
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain letters or digits");
+        }
+
+        // Порядок задаётся релевантностью, поэтому сортировка из запроса не применяется
+        Pageable unsorted = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                : Pageable.unpaged();
+
+        log.debug("Searching products: query={}, tsQuery={}", query, tsQuery);
+        return repository.search(tsQuery, unsorted)
                 .map(mapper::toDto);
     }
 
@@ -52,6 +141,7 @@ public class ShoppingStoreService {
         }
 
         Product saved = repository.save(product);
+        publishProductChanged(saved);
         log.info("Created product: {} - {}", saved.getProductId(), saved.getProductName());
         return mapper.toDto(saved);
     }
@@ -72,6 +162,7 @@ public class ShoppingStoreService {
         mapper.updateEntityFromDto(dto, product);
 
         Product saved = repository.save(product);
+        publishProductChanged(saved);
         log.info("Updated product: {} - {}", saved.getProductId(), saved.getProductName());
         return mapper.toDto(saved);
     }
@@ -93,6 +184,7 @@ public class ShoppingStoreService {
 
         product.setProductState(ProductState.DEACTIVATE);
         repository.save(product);
+        publishProductChanged(product);
 
         log.info("Deactivated product: {}", productId);
         return true;
@@ -110,6 +202,7 @@ public class ShoppingStoreService {
 
         product.setQuantityState(request.getQuantityState());
         repository.save(product);
+        publishProductChanged(product);
 
         log.info("Updated quantity state for product {}: {}",
                 product.getProductId(), request.getQuantityState());
@@ -119,11 +212,80 @@ public class ShoppingStoreService {
     /**
      * Получение сведений о товаре по ID из БД.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ProductDto getProduct(UUID productId) {
-        Product product = repository.findById(productId)
-                .orElseThrow(() -> new NotFoundProductException("Product not found with id: " + productId));
+        return getProductCached(productId).value();
+    }
+
+    /**
+     * Получение сведений о товаре вместе с ETag через кэш каталога.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CachedValue<ProductDto> getProductCached(UUID productId) {
+        return catalogCache.getProduct(productId, () -> {
+            Product product = repository.findById(productId)
+                    .orElseThrow(() -> new NotFoundProductException("Product not found with id: " + productId));
+
+            log.debug("Retrieved product: {} - {}", product.getProductId(), product.getProductName());
+            return mapper.toDto(product);
+        });
+    }
+
+    /**
+     * Получение сведений о нескольких товарах одним запросом к БД.
+     * Если хотя бы один товар не найден, выбрасывается исключение со списком отсутствующих ID.
+     */
+    public List<ProductDto> getProducts(Collection<UUID> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Set<UUID> requestedIds = new HashSet<>(productIds);
+        List<Product> products = repository.findAllById(requestedIds);
+
+        if (products.size() != requestedIds.size()) {
+            products.forEach(product -> requestedIds.remove(product.getProductId()));
+            throw new NotFoundProductException("Products not found with ids: " + requestedIds);
+        }
+
+        log.debug("Retrieved {} products by batch request", products.size());
+        return products.stream()
+                .map(mapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Преобразование пользовательского запроса в tsquery с поиском по префиксу: "умн ламп" -> "умн:* & ламп:*".
+     * Все символы, кроме букв и цифр, отбрасываются, чтобы ввод не мог изменить синтаксис запроса.
+     */
+    private static String toPrefixTsQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(" & ");
+        for (String word : SEARCH_WORD_SPLITTER.split(query.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                joiner.add(word + ":*");
+            }
+        }
+        return joiner.toString();
+    }
 
-        log.debug("Retrieved product: {} - {}", product.getProductId(), product.getProductName());
-        return mapper.toDto(product);
+    private Page<ProductDto> loadProductsByCategory(ProductCategory category, Pageable pageable) {
+        log.debug("Getting products by category: {}", category);
+        return repository.findByProductCategory(category, pageable)
+                .map(mapper::toDto);
+    }
+
+    /**
+     * Публикация события об изменении товара.
+     * Отправка в Kafka происходит только после фиксации транзакции.
+     */
+    private void publishProductChanged(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.builder()
+                .productId(product.getProductId())
+                .productCategory(product.getProductCategory())
+                .changedAt(Instant.now())
+                .build());
     }
 }
@@ -12,4 +12,20 @@ create TABLE IF NOT EXISTS shopping_store.products
     product_state VARCHAR(30) NOT NULL CHECK ( product_state IN ('ACTIVE', 'DEACTIVATE')),
     product_category VARCHAR(30) NOT NULL CHECK (product_category IN ('LIGHTING', 'CONTROL', 'SENSORS')),
     price NUMERIC(12, 2) NOT NULL CHECK ( price >= 1 )
-)
\ No newline at end of file
+);
+
+-- Индекс для постраничного просмотра каталога по категории (keyset-пагинация)
+create INDEX IF NOT EXISTS idx_products_category_name_id
+    ON shopping_store.products (product_category, product_name, product_id);
+
+-- Поисковый вектор по названию (вес A) и описанию (вес B).
+-- Колонка вычисляется Postgres при каждой вставке и обновлении товара
+alter TABLE shopping_store.products
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', coalesce(product_name, '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+        ) STORED;
+
+create INDEX IF NOT EXISTS idx_products_search_vector
+    ON shopping_store.products USING GIN (search_vector);
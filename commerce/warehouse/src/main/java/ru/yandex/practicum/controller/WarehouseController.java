@@ -3,8 +3,10 @@ package ru.yandex.practicum.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.cart.ChangeProductQuantityRequest;
 import ru.yandex.practicum.cart.ShoppingCartDto;
 import ru.yandex.practicum.client.WarehouseClient;
+import ru.yandex.practicum.idempotency.Idempotent;
 import ru.yandex.practicum.service.WarehouseService;
 import ru.yandex.practicum.warehouse.*;
 
@@ -42,9 +44,16 @@ public class WarehouseController implements WarehouseClient {
         return warehouseService.checkProductQuantityEnoughForShoppingCart(cart);
     }
 
+    @Override
+    @PostMapping("/check/product")
+    public BookedProductsDto checkProductAvailability(@Valid @RequestBody ChangeProductQuantityRequest request) {
+        return warehouseService.checkProductQuantityEnough(request);
+    }
+
     @Override
     @PostMapping("/assembly")
-    public BookedProductsDto assemblyProductsForOrder(@Valid @RequestBody AssemblyProductsForOrderRequest request) {
+    public BookedProductsDto assemblyProductsForOrder(@Valid @RequestBody AssemblyProductsForOrderRequest request,
+                                                      @RequestHeader(name = Idempotent.HEADER, required = false) String idempotencyKey) {
         return warehouseService.assemblyProductsForOrder(request);
     }
 
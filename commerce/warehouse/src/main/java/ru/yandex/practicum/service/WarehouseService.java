@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.cart.ChangeProductQuantityRequest;
 import ru.yandex.practicum.cart.ShoppingCartDto;
 import ru.yandex.practicum.exception.*;
 import ru.yandex.practicum.model.OrderBooking;
@@ -60,6 +61,29 @@ public class WarehouseService {
                 request.getFragile());
     }
 
+    /**
+     * Проверка, что количества одного товара на складе достаточно.
+     * Используется корзиной при изменении количества, чтобы не проверять корзину целиком.
+     */
+    public BookedProductsDto checkProductQuantityEnough(ChangeProductQuantityRequest request) {
+        ProductStock stock = repository.findById(request.getProductId())
+                .orElseThrow(() -> new NoSpecifiedProductInWarehouseException(
+                        "Product with ID " + request.getProductId() + " not found in warehouse"));
+
+        if (stock.getQuantity() < request.getNewQuantity()) {
+            String errorMessage = buildMissingProductsMessage(
+                    Map.of(request.getProductId(), request.getNewQuantity() - stock.getQuantity()));
+            log.warn("Insufficient stock for product {}: {}", request.getProductId(), errorMessage);
+            throw new ProductInShoppingCartLowQuantityInWarehouseException(errorMessage);
+        }
+
+        return BookedProductsDto.builder()
+                .deliveryWeight(stock.getWeight() * request.getNewQuantity())
+                .deliveryVolume(stock.volume() * request.getNewQuantity())
+                .fragile(Boolean.TRUE.equals(stock.getFragile()))
+                .build();
+    }
+
     /**
      * Проверка, что количество товаров на складе достаточно для данной корзины.
      */
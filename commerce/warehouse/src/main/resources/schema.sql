@@ -28,4 +28,18 @@ CREATE TABLE IF NOT EXISTS warehouse.order_booking_products (
     booking_id uuid NOT NULL REFERENCES warehouse.order_booking(booking_id) ON DELETE CASCADE,
     product_id uuid NOT NULL REFERENCES warehouse.product_stock(product_id) ON DELETE CASCADE,
     quantity BIGINT NOT NULL CHECK (quantity > 0),
-    PRIMARY KEY (booking_id, product_id)
\ No newline at end of file
+    PRIMARY KEY (booking_id, product_id)
+);
+
+-- Ключи идемпотентности: ответ на первый запрос отдаётся повторам с тем же ключом
+CREATE TABLE IF NOT EXISTS warehouse.idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    response_body BYTEA,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at
+    ON warehouse.idempotency_keys (created_at);
@@ -3,9 +3,13 @@ package ru.yandex.practicum;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import ru.yandex.practicum.loadbalancer.UsernameAffinityLoadBalancerConfig;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+// Корзины живут в памяти экземпляра shopping-cart, поэтому пользователь всегда попадает на один экземпляр
+@LoadBalancerClient(name = "shopping-cart", configuration = UsernameAffinityLoadBalancerConfig.class)
 public class Gateway {
     public static void main(String[] args) {
         SpringApplication.run(Gateway.class, args);
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Балансировщик, закрепляющий пользователя за одним экземпляром сервиса по параметру username.
+ * <p>
+ * Экземпляр выбирается rendezvous-хешированием пары (username, instanceId): при добавлении или уходе
+ * экземпляра переезжают только пользователи этого экземпляра. Запросы без username распределяются по кругу.
+ */
+public class UsernameAffinityLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    static final String USERNAME_PARAM = "username";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final AtomicInteger position = new AtomicInteger();
+
+    public UsernameAffinityLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers) {
+        this.suppliers = suppliers;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String username = username(request);
+        return supplier.get(request).next().map(instances -> choose(instances, username));
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, String username) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (username == null || username.isBlank()) {
+            return new DefaultResponse(instances.get(Math.floorMod(position.getAndIncrement(), instances.size())));
+        }
+
+        ServiceInstance owner = null;
+        long ownerWeight = 0;
+        for (ServiceInstance instance : instances) {
+            long weight = weight(username, instanceKey(instance));
+            if (owner == null || weight > ownerWeight) {
+                owner = instance;
+                ownerWeight = weight;
+            }
+        }
+        return new DefaultResponse(owner);
+    }
+
+    private static String username(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null) {
+            return UriComponentsBuilder.fromUri(context.getClientRequest().getUrl())
+                    .build()
+                    .getQueryParams()
+                    .getFirst(USERNAME_PARAM);
+        }
+        return null;
+    }
+
+    private static String instanceKey(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * FNV-1a по username и ключу экземпляра с финальным перемешиванием из MurmurHash3
+     */
+    private static long weight(String username, String instanceKey) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (username + '\0' + instanceKey).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Конфигурация балансировщика для отдельного сервиса, подключается через @LoadBalancerClient.
+ * Намеренно без @Configuration: иначе компонентное сканирование применило бы её ко всем сервисам.
+ */
+public class UsernameAffinityLoadBalancerConfig {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> usernameAffinityLoadBalancer(Environment environment,
+                                                                             LoadBalancerClientFactory factory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new UsernameAffinityLoadBalancer(factory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class));
+    }
+}
@@ -3,15 +3,11 @@ package ru.yandex.practicum;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
-import org.springframework.context.ConfigurableApplicationContext;
-import ru.yandex.practicum.starter.AggregationStarter;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan
 public class AggregatorApp {
     public static void main(String[] args) {
-        ConfigurableApplicationContext context = SpringApplication.run(AggregatorApp.class, args);
-        AggregationStarter aggregator = context.getBean(AggregationStarter.class);
-        aggregator.start();
+        SpringApplication.run(AggregatorApp.class, args);
     }
 }
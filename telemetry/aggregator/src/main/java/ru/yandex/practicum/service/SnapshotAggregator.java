@@ -7,6 +7,7 @@ import ru.yandex.practicum.kafka.telemetry.event.SensorStateAvro;
 import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -69,4 +70,12 @@ public class SnapshotAggregator {
 
         return Optional.of(updateSnapshot);
     }
+
+    /**
+     * Забывает снапшоты хабов, чьи партиции перешли к другому экземпляру агрегатора
+     */
+    public void evict(Collection<String> hubIds) {
+        hubIds.forEach(snapshots::remove);
+        log.info("Evicted snapshots of {} hubs", hubIds.size());
+    }
 }
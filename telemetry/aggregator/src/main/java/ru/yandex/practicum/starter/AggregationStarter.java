@@ -3,30 +3,36 @@ package ru.yandex.practicum.starter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.consumer.ConsumerRunner;
+import ru.yandex.practicum.consumer.ConsumerRunnerFactory;
+import ru.yandex.practicum.consumer.ConsumerTask;
 import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
 import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
 import ru.yandex.practicum.serializer.AvroSerializer;
 import ru.yandex.practicum.service.SnapshotAggregator;
+import ru.yandex.practicum.tracing.PipelineStage;
+import ru.yandex.practicum.tracing.PipelineTracer;
+import ru.yandex.practicum.tracing.TraceContext;
 
-import java.time.Duration;
-import java.util.Collections;
-import java.util.Optional;
-import java.util.Properties;
+import java.util.*;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class AggregationStarter {
+public class AggregationStarter implements ConsumerTask {
+
+    private static final String LOOP = "aggregator";
 
     private final SnapshotAggregator snapshotAggregator;
+    private final PipelineTracer tracer;
+    private final ConsumerRunnerFactory consumerRunners;
 
     @Value("${aggregator.topics.sensors}")
     private String sensorsTopic;
@@ -37,9 +43,16 @@ public class AggregationStarter {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
-    public void start() {
-        log.info("Starting Aggregator. Subscribing to topic:{}", sensorsTopic);
+    // Хабы, встреченные в каждой партиции; коллектор ключует события по hubId, так что хаб живёт в одной партиции
+    private final Map<Integer, Set<String>> hubsByPartition = new HashMap<>();
+
+    @Override
+    public String name() {
+        return LOOP;
+    }
 
+    @Override
+    public void run() {
         Properties consumerProps = new Properties();
         consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "aggregator-group");
@@ -55,36 +68,80 @@ public class AggregationStarter {
         producerProps.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
         producerProps.put("value.serializer", "org.apache.kafka.common.serialization.ByteArraySerializer");
 
-        try (
-                KafkaConsumer<String, SensorEventAvro> consumer = new KafkaConsumer<>(consumerProps);
-                KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProps)) {
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProps)) {
+            ConsumerRunner<String, SensorEventAvro> runner = consumerRunners.create(LOOP, consumerProps);
+            runner.onRebalance(new SnapshotEvictingListener());
+            // Смещения событий коммитятся только после того, как порождённые ими снапшоты дошли до брокера
+            runner.run(sensorsTopic, record -> aggregate(record, producer), producer::flush);
+        } finally {
+            log.info("Shutting down and closing resources");
+        }
+    }
+
+    private void aggregate(ConsumerRecord<String, SensorEventAvro> record, KafkaProducer<String, byte[]> producer) {
+        SensorEventAvro event = record.value();
+        hubsByPartition.computeIfAbsent(record.partition(), p -> new HashSet<>()).add(event.getHubId());
 
-            consumer.subscribe(Collections.singletonList(sensorsTopic));
+        log.debug("Received event from sensor:{} in hub:{}", event.getId(), event.getHubId());
 
-            while (true) {
-                ConsumerRecords<String, SensorEventAvro> records = consumer.poll(Duration.ofMillis(100));
+        Optional<TraceContext> trace = TraceContext.from(record.headers());
+        trace.ifPresent(t -> tracer.recordKafkaLag(sensorsTopic, record.timestamp()));
+        long startNanos = System.nanoTime();
 
-                for (ConsumerRecord<String, SensorEventAvro> record : records) {
-                    SensorEventAvro event = record.value();
+        Optional<SensorsSnapshotAvro> updatedSnap = snapshotAggregator.updateState(event);
+
+        updatedSnap.ifPresent(snapshot -> {
+            byte[] payload = AvroSerializer.serialize(snapshot);
+            ProducerRecord<String, byte[]> snapshotRecord =
+                    new ProducerRecord<>(snapshotsTopic, snapshot.getHubId(), payload);
+            // Трассировка продолжается только по снапшоту, который породило отобранное событие
+            trace.ifPresent(t -> t.writeTo(snapshotRecord.headers()));
+            producer.send(snapshotRecord);
+            log.info("Sent updated snapshot for hub:{} to topic:{}", snapshot.getHubId(), snapshotsTopic);
+        });
+        trace.ifPresent(t -> tracer.recordSince(PipelineStage.AGGREGATION, startNanos));
+    }
 
-                    log.debug("Received event from sensor:{} in hub:{}", event.getId(), event.getHubId());
+    /**
+     * Снапшот хаба держит только владелец его партиции: если отозванная партиция ушла другому экземпляру,
+     * снапшоты её хабов выбрасываются, иначе при возврате партиции агрегатор продолжил бы с устаревшего состояния.
+     * Eager-протокол ребаланса отзывает все партиции, поэтому решение откладывается до onPartitionsAssigned:
+     * партиции, вернувшиеся тому же экземпляру, сохраняют снапшоты.
+     * Вызывается в потоке цикла опроса, как и aggregate.
+     */
+    private class SnapshotEvictingListener implements ConsumerRebalanceListener {
 
-                    Optional<SensorsSnapshotAvro> updatedSnap = snapshotAggregator.updateState(event);
+        private final Set<Integer> revoked = new HashSet<>();
 
-                    updatedSnap.ifPresent(snapshot -> {
-                        byte[] payload = AvroSerializer.serialize(snapshot);
-                        producer.send(new ProducerRecord<>(snapshotsTopic, snapshot.getHubId(), payload));
-                        log.info("Sent updated snapshot for hub:{} to topic:{}", snapshot.getHubId(), snapshotsTopic);
-                    });
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            partitions.forEach(partition -> revoked.add(partition.partition()));
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            partitions.forEach(partition -> revoked.remove(partition.partition()));
+            evict(revoked);
+            revoked.clear();
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            // Потерянные партиции уже принадлежат другому экземпляру - ждать назначения незачем
+            evict(partitions.stream().map(TopicPartition::partition).toList());
+        }
+
+        private void evict(Collection<Integer> partitions) {
+            List<String> hubs = new ArrayList<>();
+            for (Integer partition : partitions) {
+                Set<String> partitionHubs = hubsByPartition.remove(partition);
+                if (partitionHubs != null) {
+                    hubs.addAll(partitionHubs);
                 }
-                consumer.commitAsync();
             }
-        } catch (
-                WakeupException ignore) {
-        } catch (Exception e) {
-            log.error("Error during event processing: ", e);
-        } finally {
-            log.info("Shutting down and closing resources");
+            if (!hubs.isEmpty()) {
+                snapshotAggregator.evict(hubs);
+            }
         }
     }
 }
@@ -3,32 +3,13 @@ package ru.yandex.practicum;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
-import org.springframework.context.ConfigurableApplicationContext;
-import ru.yandex.practicum.processor.HubEventProcessor;
-import ru.yandex.practicum.processor.SnapshotProcessor;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan
+@EnableScheduling
 public class AnalyzerApp {
     public static void main(String[] args) {
-        ConfigurableApplicationContext context = SpringApplication.run(AnalyzerApp.class, args);
-
-        HubEventProcessor hubEventProcessor = context.getBean(HubEventProcessor.class);
-        SnapshotProcessor snapshotProcessor = context.getBean(SnapshotProcessor.class);
-
-        Thread hubEventsThread = new Thread(hubEventProcessor);
-        hubEventsThread.setName("HubEventProcessor-Thread");
-        hubEventsThread.start();
-
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            try {
-                hubEventsThread.interrupt();
-                hubEventsThread.join(3000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }));
-
-        snapshotProcessor.start();
+        SpringApplication.run(AnalyzerApp.class, args);
     }
 }
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.model;
+
+public record CompiledAction(String sensorId,
+                             ActionType type,
+                             Integer value) {
+}
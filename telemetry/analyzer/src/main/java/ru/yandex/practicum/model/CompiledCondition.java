@@ -0,0 +1,7 @@
+package ru.yandex.practicum.model;
+
+public record CompiledCondition(String sensorId,
+                                ConditionType type,
+                                ConditionOperation operation,
+                                Integer value) {
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.model;
+
+import java.util.List;
+
+/**
+ * Сценарий в виде, готовом к проверке: условия и действия уже привязаны к датчикам хаба.
+ * Документное хранилище пишет его целиком одной строкой, реляционное собирает из таблиц связей.
+ */
+public record CompiledScenario(String hubId,
+                               String name,
+                               List<CompiledCondition> conditions,
+                               List<CompiledAction> actions) {
+
+    public boolean references(String sensorId) {
+        return conditions.stream().anyMatch(c -> c.sensorId().equals(sensorId))
+                || actions.stream().anyMatch(a -> a.sensorId().equals(sensorId));
+    }
+
+    /**
+     * Копия без условий и действий удалённого датчика - как после удаления его связей в реляционной схеме
+     */
+    public CompiledScenario withoutSensor(String sensorId) {
+        return new CompiledScenario(hubId, name,
+                conditions.stream().filter(c -> !c.sensorId().equals(sensorId)).toList(),
+                actions.stream().filter(a -> !a.sensorId().equals(sensorId)).toList());
+    }
+}
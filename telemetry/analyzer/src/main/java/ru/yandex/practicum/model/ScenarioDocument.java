@@ -0,0 +1,39 @@
+package ru.yandex.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Сценарий хаба одной строкой: ключ (hub_id, name) и скомпилированный сценарий в JSONB.
+ * formatVersion - версия структуры документа; строки чужой версии анализатор не читает.
+ */
+@Entity
+@Table(name = "scenario_documents")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ScenarioDocument {
+
+    public static final int FORMAT_VERSION = 1;
+
+    @EmbeddedId
+    ScenarioDocumentId id;
+
+    @Column(name = "format_version", nullable = false)
+    Integer formatVersion;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    CompiledScenario document;
+
+    @Column(name = "updated_at", nullable = false)
+    Instant updatedAt;
+}
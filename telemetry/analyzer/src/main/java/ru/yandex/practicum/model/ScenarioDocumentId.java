@@ -0,0 +1,23 @@
+package ru.yandex.practicum.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ScenarioDocumentId implements Serializable {
+
+    @Column(name = "hub_id")
+    String hubId;
+
+    String name;
+}
@@ -3,32 +3,35 @@ package ru.yandex.practicum.processor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
-import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.consumer.ConsumerRunner;
+import ru.yandex.practicum.consumer.ConsumerRunnerFactory;
+import ru.yandex.practicum.consumer.ConsumerTask;
 import ru.yandex.practicum.kafka.telemetry.event.*;
 import ru.yandex.practicum.model.*;
-import ru.yandex.practicum.repository.*;
+import ru.yandex.practicum.storage.ScenarioStore;
+import ru.yandex.practicum.storage.SensorRegistry;
 
-import java.time.Duration;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Properties;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class HubEventProcessor implements Runnable {
+public class HubEventProcessor implements ConsumerTask {
 
-    private final SensorRepository sensorRepository;
+    private static final String LOOP = "analyzer-hub-events";
 
-    private final ScenarioRepository scenarioRepository;
+    private final SensorRegistry sensorRegistry;
 
-    private final ConditionRepository conditionRepository;
+    private final ScenarioStore scenarioStore;
 
-    private final ActionRepository actionRepository;
+    private final ScenarioCompiler scenarioCompiler;
+
+    private final ConsumerRunnerFactory consumerRunners;
 
     // Адреса Kafka brokers
     @Value("${analyzer.kafka.bootstrap-servers}")
@@ -38,34 +41,21 @@ public class HubEventProcessor implements Runnable {
     @Value("${analyzer.topics.hub-events}")
     private String hubEventsTopic;
 
+    @Override
+    public String name() {
+        return LOOP;
+    }
+
     /**
-     * Основной метод - запускает бесконечный цикл обработки сообщений Kafka в отдельном потоке
+     * Основной метод - обрабатывает события хабов из Kafka до остановки контекста.
+     * Выполняется в потоке, который выделяет ConsumerLifecycle
      */
     @Override
     public void run() {
-        log.info("Starting HubEventProcessor. Subscribing to topic: {}", hubEventsTopic);
-
-        Properties props = createKafkaConsumerProperties();
-
-        KafkaConsumer<String, HubEventAvro> consumer = new KafkaConsumer<>(props);
-        consumer.subscribe(Collections.singletonList(hubEventsTopic));
-
-        try {
-            startPollingLoop(consumer);
-        } catch (WakeupException ignored) {
-            log.info("HubEventProcessor stopped via wakeup");
-        } catch (Exception e) {
-            log.error("Error in HubEventProcessor: ", e);
-        } finally {
-            try {
-                consumer.commitSync();
-            } catch (Exception e) {
-                log.warn("Error during final commit:{}", e.getMessage());
-            } finally {
-                consumer.close();
-                log.info("HubEventProcessor consumer closed");
-            }
-        }
+        ConsumerRunner<String, HubEventAvro> runner =
+                consumerRunners.create(LOOP, createKafkaConsumerProperties());
+        runner.onRebalance(new RegistryResettingListener());
+        runner.run(hubEventsTopic, record -> processEvent(record.value()));
     }
 
     /**
@@ -84,29 +74,6 @@ public class HubEventProcessor implements Runnable {
         return props;
     }
 
-    /**
-     * Метод запускает бесконечный цикл опроса Kafka событий хаба
-     */
-    private void startPollingLoop(KafkaConsumer<String, HubEventAvro> consumer) {
-        while (true) {
-            // Получение пачки сообщений
-            ConsumerRecords<String, HubEventAvro> records = consumer.poll(Duration.ofMillis(5000));
-
-            // Проверка активности HubEventProcessor
-            if (!records.isEmpty()) {
-                log.debug("Processing {} hub events", records.count());
-            }
-
-            // Обработка каждого сообщения в пачке
-            for (ConsumerRecord<String, HubEventAvro> record : records) {
-                processEvent(record.value());
-            }
-
-            // Асинхронный коммит offset-ов после обработки всей пачки
-            consumer.commitAsync();
-        }
-    }
-
     /**
      * Диспетчер событий - определяет тип события и направляет на соответствующий обработчик
      */
@@ -132,16 +99,12 @@ public class HubEventProcessor implements Runnable {
         String sensorId = payload.getId();
         String hubId = event.getHubId();
 
-        // Проверка существования сенсора, если нет - создать
-        sensorRepository.findById(sensorId).ifPresentOrElse(
-                s -> log.debug("Sensor '{}' already exists in hub '{}'", sensorId, hubId),
-                () -> {
-                    sensorRepository.save(Sensor.builder()
-                            .id(sensorId)
-                            .hubId(hubId)
-                            .build());
-                    log.info("Added sensor '{}' to hub '{}'", sensorId, hubId);
-                });
+        // Повторную регистрацию отсекает INSERT ... ON CONFLICT DO NOTHING, реестр в памяти лишь обновляется
+        if (sensorRegistry.register(sensorId, hubId)) {
+            log.info("Added sensor '{}' to hub '{}'", sensorId, hubId);
+        } else {
+            log.debug("Sensor '{}' already exists in hub '{}'", sensorId, hubId);
+        }
     }
 
     /**
@@ -152,10 +115,9 @@ public class HubEventProcessor implements Runnable {
         DeviceRemovedEventAvro payload = (DeviceRemovedEventAvro) event.getPayload();
         String sensorId = payload.getId();
 
-        if (sensorRepository.existsById(sensorId)) {
-            scenarioRepository.deleteConditionsBySensorId(sensorId);
-            scenarioRepository.deleteActionsBySensorId(sensorId);
-            sensorRepository.deleteById(sensorId);
+        if (sensorRegistry.hubOf(sensorId).isPresent()) {
+            scenarioStore.removeSensor(event.getHubId(), sensorId);
+            sensorRegistry.remove(sensorId);
             log.info("Removed sensor '{}'", sensorId);
         } else {
             log.debug("Sensor '{}' not found for removal", sensorId);
@@ -164,78 +126,15 @@ public class HubEventProcessor implements Runnable {
 
     /**
      * Обработчик добавления сценария.
-     * Создает/обновляет сценарий, его условия и действия в БД
+     * Компилирует сценарий и создает/заменяет его в хранилище
      */
     private void handleScenarioAdded(HubEventAvro event) {
         ScenarioAddedEventAvro payload = (ScenarioAddedEventAvro) event.getPayload();
-        String hubId = event.getHubId();
-        String name = payload.getName();
+        CompiledScenario scenario = scenarioCompiler.compile(event.getHubId(), payload);
 
-        // Находим существующий сценарий или создаем новый
-        Scenario scenario = scenarioRepository.findByHubIdAndName(hubId, name)
-                .orElseGet(() -> Scenario.builder()
-                        .hubId(hubId)
-                        .name(name)
-                        .build());
-
-        scenarioRepository.save(scenario);
-
-        // Очищаем старые условия и действия (для обновления сценария)
-        scenario.getConditions().clear();
-        scenario.getActions().clear();
-
-        // Обработка условия сценария
-        payload.getConditions().forEach(cond -> {
-            // Преобразование значения условия
-            Integer value = null;
-            Object rawValue = cond.getValue();
-            if (rawValue instanceof Integer i) {
-                value = i;
-            } else if (rawValue instanceof Boolean b) {
-                value = b ? 1 : 0; // boolean -> int (1/0)
-            }
-
-            // Сохраняем условие в БД
-            Condition condition = conditionRepository.save(Condition.builder()
-                    .type(ConditionType.valueOf(cond.getType().name()))
-                    .operation(ConditionOperation.valueOf(cond.getOperation().name()))
-                    .value(value)
-                    .build());
-
-            // Связываем условие с сенсором и сценарием (если сенсор существует)
-            sensorRepository.findByIdAndHubId(cond.getSensorId(), hubId).ifPresent(sensor -> {
-                ScenarioCondition sc = ScenarioCondition.builder()
-                        .id(new ScenarioConditionId(scenario.getId(), sensor.getId(), condition.getId()))
-                        .scenario(scenario)
-                        .sensor(sensor)
-                        .condition(condition)
-                        .build();
-                scenario.getConditions().add(sc);
-            });
-        });
-
-        // Обработка действий сценария
-        payload.getActions().forEach(act -> {
-            Action action = actionRepository.save(Action.builder()
-                    .type(ActionType.valueOf(act.getType().name()))
-                    .value(act.getValue() != null ? act.getValue() : null)
-                    .build());
-
-            sensorRepository.findByIdAndHubId(act.getSensorId(), hubId).ifPresent(sensor -> {
-                ScenarioAction sa = ScenarioAction.builder()
-                        .id(new ScenarioActionId(scenario.getId(), sensor.getId(), action.getId()))
-                        .scenario(scenario)
-                        .sensor(sensor)
-                        .action(action)
-                        .build();
-                scenario.getActions().add(sa);
-            });
-        });
-
-        // Сохраняем полностью собранный сценарий
-        scenarioRepository.save(scenario);
+        scenarioStore.save(scenario);
         log.info("Scenario '{}' added to hub '{}' with {} conditions and {} actions",
-                name, hubId, payload.getConditions().size(), payload.getActions().size());
+                scenario.name(), scenario.hubId(), scenario.conditions().size(), scenario.actions().size());
     }
 
     /**
@@ -247,12 +146,33 @@ public class HubEventProcessor implements Runnable {
         String hubId = event.getHubId();
         String name = payload.getName();
 
-        scenarioRepository.findByHubIdAndName(hubId, name).ifPresentOrElse(
-                s -> {
-                    scenarioRepository.delete(s);
-                    log.info("Removed scenario '{}' from hub '{}'", name, hubId);
-                },
-                () -> log.debug("Scenario '{}' not found in hub '{}'", name, hubId)
-        );
+        if (scenarioStore.delete(hubId, name)) {
+            log.info("Removed scenario '{}' from hub '{}'", name, hubId);
+        } else {
+            log.debug("Scenario '{}' not found in hub '{}'", name, hubId);
+        }
+    }
+
+    /**
+     * Сбрасывает реестр датчиков при смене набора партиций: пока хабы принадлежали другому экземпляру,
+     * их датчики могли измениться, а устаревшая запись пропустит условие на удалённый датчик.
+     */
+    private class RegistryResettingListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            if (!partitions.isEmpty()) {
+                sensorRegistry.clear();
+            }
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            sensorRegistry.clear();
+        }
     }
 }
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.processor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.event.ScenarioAddedEventAvro;
+import ru.yandex.practicum.model.*;
+import ru.yandex.practicum.storage.SensorRegistry;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Превращает событие добавления сценария в CompiledScenario.
+ * Условия и действия с датчиками, не зарегистрированными в хабе сценария, отбрасываются -
+ * это та же проверка, что делает триггер check_hub_id, но по SensorRegistry в памяти.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScenarioCompiler {
+
+    private final SensorRegistry sensorRegistry;
+
+    public CompiledScenario compile(String hubId, ScenarioAddedEventAvro payload) {
+        Set<String> referenced = new HashSet<>();
+        payload.getConditions().forEach(cond -> referenced.add(cond.getSensorId()));
+        payload.getActions().forEach(act -> referenced.add(act.getSensorId()));
+
+        Set<String> known = sensorRegistry.registeredIn(hubId, referenced);
+        referenced.removeAll(known);
+        if (!referenced.isEmpty()) {
+            log.warn("Scenario '{}' in hub '{}' references unknown sensors {}, skipping them",
+                    payload.getName(), hubId, referenced);
+        }
+
+        List<CompiledCondition> conditions = payload.getConditions().stream()
+                .filter(cond -> known.contains(cond.getSensorId()))
+                .map(cond -> new CompiledCondition(cond.getSensorId(),
+                        ConditionType.valueOf(cond.getType().name()),
+                        ConditionOperation.valueOf(cond.getOperation().name()),
+                        conditionValue(cond.getValue())))
+                .toList();
+
+        List<CompiledAction> actions = payload.getActions().stream()
+                .filter(act -> known.contains(act.getSensorId()))
+                .map(act -> new CompiledAction(act.getSensorId(),
+                        ActionType.valueOf(act.getType().name()),
+                        act.getValue()))
+                .toList();
+
+        return new CompiledScenario(hubId, payload.getName(), conditions, actions);
+    }
+
+    /**
+     * Преобразование значения условия: boolean хранится как 1/0
+     */
+    private Integer conditionValue(Object rawValue) {
+        if (rawValue instanceof Integer i) {
+            return i;
+        } else if (rawValue instanceof Boolean b) {
+            return b ? 1 : 0;
+        }
+        return null;
+    }
+}
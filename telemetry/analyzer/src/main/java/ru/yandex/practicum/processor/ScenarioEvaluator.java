@@ -0,0 +1,88 @@
+package ru.yandex.practicum.processor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.event.*;
+import ru.yandex.practicum.model.*;
+
+/**
+ * Проверка условий сценария по снапшоту состояния датчиков хаба.
+ */
+@Slf4j
+@Component
+public class ScenarioEvaluator {
+
+    /**
+     * Проверка всех условий сценария на соответствие данным снапшота
+     */
+    public boolean conditionsMet(CompiledScenario scenario, SensorsSnapshotAvro snapshot) {
+        if (scenario.conditions().isEmpty()) {
+            log.warn("Scenario '{}' has no conditions!", scenario.name());
+            return false;
+        }
+
+        // Все условия должны быть выполнены
+        for (CompiledCondition condition : scenario.conditions()) {
+            String sensorId = condition.sensorId();
+            SensorStateAvro sensorState = snapshot.getSensorsState().get(sensorId);
+
+            if (sensorState == null) {
+                log.debug("Sensor {} not found in snapshot, skipping condition", sensorId);
+                return false;
+            }
+
+            boolean conditionResult = evaluateCondition(condition, sensorState.getData());
+
+            // Если есть одно невыполненное условие - весь сценарий не выполняется
+            if (!conditionResult) {
+                return false;
+            }
+        }
+
+        // Все условия выполнены
+        return true;
+    }
+
+    /**
+     * Вычисление выполнения одного условия на основе данных сенсора
+     */
+    private boolean evaluateCondition(CompiledCondition condition, Object sensorData) {
+        ConditionOperation operation = condition.operation();
+        Integer expectedValue = condition.value();
+
+        if (expectedValue == null) {
+            return false;
+        }
+
+        // Обработка разных типов сенсоров
+        if (sensorData instanceof TemperatureSensorAvro temperatureSensor) {
+            return compare(temperatureSensor.getTemperatureC(), expectedValue, operation);
+        } else if (sensorData instanceof ClimateSensorAvro climateSensor) {
+            return compare(climateSensor.getTemperatureC(), expectedValue, operation);
+        } else if (sensorData instanceof LightSensorAvro lightSensor) {
+            return compare(lightSensor.getLuminosity(), expectedValue, operation);
+        } else if (sensorData instanceof MotionSensorAvro motionSensor) {
+            return motionSensor.getMotion() && expectedValue == 1;
+        } else if (sensorData instanceof SwitchSensorAvro switchSensor) {
+            return switchSensor.getState() == (expectedValue == 1);
+        }
+
+        log.warn("Unknown sensor data type: {}", sensorData.getClass().getSimpleName());
+        return false;
+    }
+
+    /**
+     * Сравнение значения сенсора с ожидаемым по заданной операции
+     */
+    private boolean compare(int sensorValue, int expectedValue, ConditionOperation operation) {
+        return switch (operation) {
+            case GREATER_THAN -> sensorValue > expectedValue;
+            case LOWER_THAN -> sensorValue < expectedValue;
+            case EQUALS -> sensorValue == expectedValue;
+            default -> {
+                log.warn("Unknown comparison operation: {}", operation);
+                yield false;
+            }
+        };
+    }
+}
@@ -1,7 +1,30 @@
 package ru.yandex.practicum.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.model.Action;
+import ru.yandex.practicum.model.ActionType;
+
+import java.util.Optional;
 
 public interface ActionRepository extends JpaRepository<Action, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<Action> findFirstByTypeAndValue(ActionType type, Integer value);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM actions WHERE id IN (
+                SELECT a.id FROM actions a
+                WHERE NOT EXISTS (SELECT 1 FROM scenario_actions sa WHERE sa.action_id = a.id)
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int deleteOrphans(@Param("batchSize") int batchSize);
 }
@@ -1,7 +1,38 @@
 package ru.yandex.practicum.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.model.Condition;
+import ru.yandex.practicum.model.ConditionOperation;
+import ru.yandex.practicum.model.ConditionType;
+
+import java.util.Optional;
 
 public interface ConditionRepository extends JpaRepository<Condition, Long> {
+
+    /**
+     * Поиск условия с тем же содержимым; блокировка не даёт компактору удалить строку до коммита ссылки на неё
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<Condition> findFirstByTypeAndOperationAndValue(ConditionType type, ConditionOperation operation,
+                                                            Integer value);
+
+    /**
+     * Удаляет до batchSize условий, на которые не ссылается ни один сценарий; занятые строки пропускаются
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM conditions WHERE id IN (
+                SELECT c.id FROM conditions c
+                WHERE NOT EXISTS (SELECT 1 FROM scenario_conditions sc WHERE sc.condition_id = c.id)
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int deleteOrphans(@Param("batchSize") int batchSize);
 }
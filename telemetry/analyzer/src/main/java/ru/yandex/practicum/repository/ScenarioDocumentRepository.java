@@ -0,0 +1,44 @@
+package ru.yandex.practicum.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.model.ScenarioDocument;
+import ru.yandex.practicum.model.ScenarioDocumentId;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ScenarioDocumentRepository extends JpaRepository<ScenarioDocument, ScenarioDocumentId> {
+
+    List<ScenarioDocument> findByIdHubId(String hubId);
+
+    /**
+     * Вставка или замена документа одним запросом, без SELECT, который делает merge
+     *
+     * @param document сценарий, уже сериализованный в JSON
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO scenario_documents (hub_id, name, format_version, document, updated_at)
+            VALUES (:hubId, :name, :formatVersion, CAST(:document AS jsonb), :updatedAt)
+            ON CONFLICT (hub_id, name) DO UPDATE
+            SET format_version = EXCLUDED.format_version,
+                document = EXCLUDED.document,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void upsert(@Param("hubId") String hubId, @Param("name") String name,
+                @Param("formatVersion") int formatVersion, @Param("document") String document,
+                @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * @return 1, если документ удалён, 0 - если его не было
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ScenarioDocument d WHERE d.id.hubId = :hubId AND d.id.name = :name")
+    int deleteByHubIdAndName(@Param("hubId") String hubId, @Param("name") String name);
+}
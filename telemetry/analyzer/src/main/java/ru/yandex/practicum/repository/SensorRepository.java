@@ -1,6 +1,10 @@
 package ru.yandex.practicum.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.model.Sensor;
 
 import java.util.Collection;
@@ -11,4 +15,12 @@ public interface SensorRepository extends JpaRepository<Sensor, String> {
     boolean existsByIdInAndHubId(Collection<String> ids, String hubId);
 
     Optional<Sensor> findByIdAndHubId(String id, String hubId);
+
+    /**
+     * @return 1, если датчик добавлен, 0 - если датчик с таким id уже есть
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO sensors (id, hub_id) VALUES (:id, :hubId) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("hubId") String hubId);
 }
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.storage;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "analyzer.compaction")
+public class CompactionProperties {
+
+    boolean enabled = true;
+
+    /** Пауза между окончанием одного прохода и началом следующего */
+    Duration interval = Duration.ofMinutes(10);
+
+    /** Сколько строк удаляется одной транзакцией, чтобы не держать блокировки долго */
+    int batchSize = 500;
+}
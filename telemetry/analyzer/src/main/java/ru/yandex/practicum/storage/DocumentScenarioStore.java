@@ -0,0 +1,71 @@
+package ru.yandex.practicum.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.model.CompiledScenario;
+import ru.yandex.practicum.model.ScenarioDocument;
+import ru.yandex.practicum.repository.ScenarioDocumentRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Сценарии как документы: чтение хаба - выборка по префиксу первичного ключа, запись - одна строка.
+ * Проверку, что датчики принадлежат хабу сценария, вместо триггера check_hub_id делает ScenarioCompiler.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "analyzer", name = "scenario-storage", havingValue = "document")
+public class DocumentScenarioStore implements ScenarioStore {
+
+    private final ScenarioDocumentRepository documentRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public List<CompiledScenario> findByHubId(String hubId) {
+        return documentRepository.findByIdHubId(hubId).stream()
+                .filter(this::supported)
+                .map(ScenarioDocument::getDocument)
+                .toList();
+    }
+
+    @Override
+    public void save(CompiledScenario scenario) {
+        documentRepository.upsert(scenario.hubId(), scenario.name(), ScenarioDocument.FORMAT_VERSION,
+                toJson(scenario), Instant.now());
+    }
+
+    @Override
+    public boolean delete(String hubId, String name) {
+        return documentRepository.deleteByHubIdAndName(hubId, name) > 0;
+    }
+
+    @Override
+    public void removeSensor(String hubId, String sensorId) {
+        findByHubId(hubId).stream()
+                .filter(scenario -> scenario.references(sensorId))
+                .forEach(scenario -> save(scenario.withoutSensor(sensorId)));
+    }
+
+    protected String toJson(CompiledScenario scenario) {
+        try {
+            return objectMapper.writeValueAsString(scenario);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize scenario '" + scenario.name() + "'", e);
+        }
+    }
+
+    private boolean supported(ScenarioDocument document) {
+        if (document.getFormatVersion() != ScenarioDocument.FORMAT_VERSION) {
+            log.warn("Skipping scenario '{}' in hub '{}': unsupported document format {}",
+                    document.getId().getName(), document.getId().getHubId(), document.getFormatVersion());
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.repository.ActionRepository;
+import ru.yandex.practicum.repository.ConditionRepository;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Фоновое удаление строк conditions и actions, на которые больше не ссылается ни один сценарий:
+ * они остаются после удаления сценариев и датчиков и после изменения условий сценария.
+ * Удаляет пачками по analyzer.compaction.batch-size, каждая пачка - отдельная транзакция.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "analyzer.compaction", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrphanCompactionJob {
+
+    private final ConditionRepository conditionRepository;
+    private final ActionRepository actionRepository;
+    private final CompactionProperties properties;
+
+    public record Result(long conditionsBefore, long conditionsAfter, long actionsBefore, long actionsAfter) {
+    }
+
+    @Scheduled(initialDelayString = "${analyzer.compaction.interval:10m}",
+            fixedDelayString = "${analyzer.compaction.interval:10m}")
+    public Result compact() {
+        long start = System.nanoTime();
+        long conditionsBefore = conditionRepository.count();
+        long actionsBefore = actionRepository.count();
+
+        int conditionsRemoved = deleteInBatches(conditionRepository::deleteOrphans);
+        int actionsRemoved = deleteInBatches(actionRepository::deleteOrphans);
+
+        Result result = new Result(conditionsBefore, conditionsBefore - conditionsRemoved,
+                actionsBefore, actionsBefore - actionsRemoved);
+        log.info("Compacted scenario tables in {} ms: conditions {} -> {}, actions {} -> {}",
+                (System.nanoTime() - start) / 1_000_000,
+                result.conditionsBefore(), result.conditionsAfter(), result.actionsBefore(), result.actionsAfter());
+        return result;
+    }
+
+    private int deleteInBatches(IntUnaryOperator deleteOrphans) {
+        int batchSize = properties.getBatchSize();
+        int total = 0;
+        int removed;
+        do {
+            removed = deleteOrphans.applyAsInt(batchSize);
+            total += removed;
+        } while (removed == batchSize);
+        return total;
+    }
+}
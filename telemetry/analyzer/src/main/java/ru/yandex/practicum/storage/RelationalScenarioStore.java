@@ -0,0 +1,131 @@
+package ru.yandex.practicum.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.model.*;
+import ru.yandex.practicum.repository.ActionRepository;
+import ru.yandex.practicum.repository.ConditionRepository;
+import ru.yandex.practicum.repository.ScenarioRepository;
+import ru.yandex.practicum.repository.SensorRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Сценарии в нормализованной схеме: чтение - один запрос с join fetch по шести таблицам,
+ * запись - связь сценария и датчика с условием или действием. Строки conditions и actions
+ * адресуются содержимым: одинаковые условия разных сценариев ссылаются на одну строку,
+ * а ставшие ничьими удаляет OrphanCompactionJob.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "analyzer", name = "scenario-storage", havingValue = "relational", matchIfMissing = true)
+public class RelationalScenarioStore implements ScenarioStore {
+
+    private final ScenarioRepository scenarioRepository;
+    private final ConditionRepository conditionRepository;
+    private final ActionRepository actionRepository;
+    private final SensorRepository sensorRepository;
+
+    @Override
+    public List<CompiledScenario> findByHubId(String hubId) {
+        return scenarioRepository.findByHubId(hubId).stream()
+                .map(RelationalScenarioStore::compile)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void save(CompiledScenario compiled) {
+        // Находим существующий сценарий или создаем новый
+        Scenario scenario = scenarioRepository.findByHubIdAndName(compiled.hubId(), compiled.name())
+                .orElseGet(() -> scenarioRepository.save(Scenario.builder()
+                        .hubId(compiled.hubId())
+                        .name(compiled.name())
+                        .build()));
+
+        // Связи сравниваются по ключу: неизменные остаются, лишние удаляются, новые добавляются.
+        // Пересоздать связь с тем же ключом нельзя - Hibernate вставляет раньше, чем удаляет
+        Set<ScenarioConditionId> wantedConditions = new HashSet<>();
+        Set<ScenarioConditionId> existingConditions = scenario.getConditions().stream()
+                .map(ScenarioCondition::getId)
+                .collect(Collectors.toSet());
+        for (CompiledCondition cond : compiled.conditions()) {
+            Condition condition = conditionRepository
+                    .findFirstByTypeAndOperationAndValue(cond.type(), cond.operation(), cond.value())
+                    .orElseGet(() -> conditionRepository.save(Condition.builder()
+                            .type(cond.type())
+                            .operation(cond.operation())
+                            .value(cond.value())
+                            .build()));
+            ScenarioConditionId id = new ScenarioConditionId(scenario.getId(), cond.sensorId(), condition.getId());
+            if (wantedConditions.add(id) && !existingConditions.contains(id)) {
+                scenario.getConditions().add(ScenarioCondition.builder()
+                        .id(id)
+                        .scenario(scenario)
+                        .sensor(sensorRepository.getReferenceById(cond.sensorId()))
+                        .condition(condition)
+                        .build());
+            }
+        }
+        scenario.getConditions().removeIf(sc -> !wantedConditions.contains(sc.getId()));
+
+        Set<ScenarioActionId> wantedActions = new HashSet<>();
+        Set<ScenarioActionId> existingActions = scenario.getActions().stream()
+                .map(ScenarioAction::getId)
+                .collect(Collectors.toSet());
+        for (CompiledAction act : compiled.actions()) {
+            Action action = actionRepository.findFirstByTypeAndValue(act.type(), act.value())
+                    .orElseGet(() -> actionRepository.save(Action.builder()
+                            .type(act.type())
+                            .value(act.value())
+                            .build()));
+            ScenarioActionId id = new ScenarioActionId(scenario.getId(), act.sensorId(), action.getId());
+            if (wantedActions.add(id) && !existingActions.contains(id)) {
+                scenario.getActions().add(ScenarioAction.builder()
+                        .id(id)
+                        .scenario(scenario)
+                        .sensor(sensorRepository.getReferenceById(act.sensorId()))
+                        .action(action)
+                        .build());
+            }
+        }
+        scenario.getActions().removeIf(sa -> !wantedActions.contains(sa.getId()));
+
+        // Сохраняем полностью собранный сценарий
+        scenarioRepository.save(scenario);
+    }
+
+    @Override
+    @Transactional
+    public boolean delete(String hubId, String name) {
+        return scenarioRepository.findByHubIdAndName(hubId, name)
+                .map(scenario -> {
+                    scenarioRepository.delete(scenario);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    @Override
+    public void removeSensor(String hubId, String sensorId) {
+        scenarioRepository.deleteConditionsBySensorId(sensorId);
+        scenarioRepository.deleteActionsBySensorId(sensorId);
+    }
+
+    static CompiledScenario compile(Scenario scenario) {
+        return new CompiledScenario(scenario.getHubId(), scenario.getName(),
+                scenario.getConditions().stream()
+                        .map(sc -> new CompiledCondition(sc.getSensor().getId(), sc.getCondition().getType(),
+                                sc.getCondition().getOperation(), sc.getCondition().getValue()))
+                        .toList(),
+                scenario.getActions().stream()
+                        .map(sa -> new CompiledAction(sa.getSensor().getId(), sa.getAction().getType(),
+                                sa.getAction().getValue()))
+                        .toList());
+    }
+}
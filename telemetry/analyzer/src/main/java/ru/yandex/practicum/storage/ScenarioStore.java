@@ -0,0 +1,30 @@
+package ru.yandex.practicum.storage;
+
+import ru.yandex.practicum.model.CompiledScenario;
+
+import java.util.List;
+
+/**
+ * Хранилище сценариев анализатора. Реализация выбирается свойством analyzer.scenario-storage:
+ * relational (по умолчанию) - нормализованные таблицы scenarios/conditions/actions,
+ * document - по одной JSONB-строке на сценарий в scenario_documents.
+ */
+public interface ScenarioStore {
+
+    List<CompiledScenario> findByHubId(String hubId);
+
+    /**
+     * Создаёт сценарий или целиком заменяет существующий с тем же (hubId, name)
+     */
+    void save(CompiledScenario scenario);
+
+    /**
+     * @return false, если такого сценария не было
+     */
+    boolean delete(String hubId, String name);
+
+    /**
+     * Убирает из сценариев хаба условия и действия удаляемого датчика
+     */
+    void removeSensor(String hubId, String sensorId);
+}
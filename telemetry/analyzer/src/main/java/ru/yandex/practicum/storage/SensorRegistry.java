@@ -0,0 +1,99 @@
+package ru.yandex.practicum.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.model.Sensor;
+import ru.yandex.practicum.repository.SensorRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Копия таблицы sensors в памяти: sensorId -> hubId. Заполняется одним запросом при старте,
+ * дальше обновляется событиями добавления и удаления устройств. Датчики, которых нет в кэше,
+ * дочитываются из БД: их мог зарегистрировать другой экземпляр анализатора.
+ * <p>
+ * События хаба обрабатывает один экземпляр - владелец его партиции, поэтому кэш верен, пока партиции
+ * не переехали. После ребаланса его нужно сбросить через {@link #clear()}: за это время хабы могли
+ * добавить или удалить устройства на другом экземпляре.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SensorRegistry {
+
+    private final SensorRepository sensorRepository;
+    private final Map<String, String> hubBySensor = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void warmUp() {
+        sensorRepository.findAll().forEach(this::cache);
+        log.info("Sensor registry warmed up with {} sensors", hubBySensor.size());
+    }
+
+    /**
+     * Регистрирует датчик в хабе. Вставка выполняется всегда: наличие датчика в кэше не гарантирует,
+     * что его строку не удалил другой экземпляр.
+     *
+     * @return false, если датчик с таким id уже зарегистрирован (в любом хабе)
+     */
+    public boolean register(String sensorId, String hubId) {
+        if (sensorRepository.insertIfAbsent(sensorId, hubId) == 0) {
+            sensorRepository.findById(sensorId).ifPresent(this::cache);
+            return false;
+        }
+        hubBySensor.put(sensorId, hubId);
+        return true;
+    }
+
+    public Optional<String> hubOf(String sensorId) {
+        String hubId = hubBySensor.get(sensorId);
+        if (hubId != null) {
+            return Optional.of(hubId);
+        }
+        return sensorRepository.findById(sensorId).map(this::cache);
+    }
+
+    /**
+     * Отбирает из sensorIds датчики, зарегистрированные в хабе hubId
+     */
+    public Set<String> registeredIn(String hubId, Collection<String> sensorIds) {
+        Set<String> missing = new HashSet<>();
+        for (String sensorId : sensorIds) {
+            if (!hubBySensor.containsKey(sensorId)) {
+                missing.add(sensorId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            sensorRepository.findAllById(missing).forEach(this::cache);
+        }
+
+        Set<String> registered = new HashSet<>();
+        for (String sensorId : sensorIds) {
+            if (hubId.equals(hubBySensor.get(sensorId))) {
+                registered.add(sensorId);
+            }
+        }
+        return registered;
+    }
+
+    public void remove(String sensorId) {
+        sensorRepository.deleteById(sensorId);
+        hubBySensor.remove(sensorId);
+    }
+
+    /**
+     * Сброс кэша; датчики дочитываются из БД при следующем обращении
+     */
+    public void clear() {
+        hubBySensor.clear();
+        log.info("Sensor registry cleared");
+    }
+
+    private String cache(Sensor sensor) {
+        hubBySensor.put(sensor.getId(), sensor.getHubId());
+        return sensor.getHubId();
+    }
+}
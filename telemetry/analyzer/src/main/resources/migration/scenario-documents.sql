@@ -0,0 +1,37 @@
+-- однократный перенос сценариев из нормализованных таблиц в scenario_documents;
+-- подключается в spring.sql.init.schema-locations после schema.sql при переходе на analyzer.scenario-storage=document
+create TABLE IF NOT EXISTS scenario_storage_migrations (
+    name VARCHAR PRIMARY KEY,
+    applied_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- документ повторяет JSON, который пишет DocumentScenarioStore (format_version = 1)
+INSERT INTO scenario_documents (hub_id, name, format_version, document, updated_at)
+SELECT s.hub_id, s.name, 1,
+       jsonb_build_object(
+           'hubId', s.hub_id,
+           'name', s.name,
+           'conditions', COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                                           'sensorId', sc.sensor_id,
+                                           'type', c.type,
+                                           'operation', c.operation,
+                                           'value', c.value))
+                                   FROM scenario_conditions sc
+                                   JOIN conditions c ON c.id = sc.condition_id
+                                   WHERE sc.scenario_id = s.id), '[]'::jsonb),
+           'actions', COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                                        'sensorId', sa.sensor_id,
+                                        'type', a.type,
+                                        'value', a.value))
+                                FROM scenario_actions sa
+                                JOIN actions a ON a.id = sa.action_id
+                                WHERE sa.scenario_id = s.id), '[]'::jsonb)),
+       now()
+FROM scenarios s
+WHERE NOT EXISTS (SELECT 1 FROM scenario_storage_migrations WHERE name = 'scenario-documents')
+ON CONFLICT (hub_id, name) DO NOTHING;
+
+-- после отметки перенос не повторяется, иначе удалённые в документном режиме сценарии вернулись бы при рестарте
+INSERT INTO scenario_storage_migrations (name, applied_at)
+VALUES ('scenario-documents', now())
+ON CONFLICT (name) DO NOTHING;
@@ -43,6 +43,12 @@ create TABLE IF NOT EXISTS scenario_actions (
     PRIMARY KEY (scenario_id, sensor_id, action_id)
 );
 
+-- индексы для поиска условий и действий по содержимому и для поиска строк, на которые никто не ссылается
+create INDEX IF NOT EXISTS conditions_content_idx ON conditions (type, operation, value);
+create INDEX IF NOT EXISTS actions_content_idx ON actions (type, value);
+create INDEX IF NOT EXISTS scenario_conditions_condition_idx ON scenario_conditions (condition_id);
+create INDEX IF NOT EXISTS scenario_actions_action_idx ON scenario_actions (action_id);
+
 -- создаём функцию для проверки, что связываемые сценарий и датчик работают с одним и тем же хабом
 create or replace function check_hub_id()
 RETURNS trigger AS
@@ -66,4 +72,14 @@ EXECUTE function check_hub_id();
 create or replace trigger tr_bi_scenario_actions_hub_id_check
 before insert on scenario_actions
 for each row
-EXECUTE function check_hub_id();
\ No newline at end of file
+EXECUTE function check_hub_id();
+
+-- создаём таблицу scenario_documents: сценарий хаба целиком одной строкой (режим analyzer.scenario-storage=document)
+create TABLE IF NOT EXISTS scenario_documents (
+    hub_id VARCHAR NOT NULL,
+    name VARCHAR NOT NULL,
+    format_version INTEGER NOT NULL,
+    document JSONB NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (hub_id, name)
+);
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.deserializer.SensorEventDeserializer;
+import ru.yandex.practicum.deserializer.SensorsSnapshotDeserializer;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.serializer.AvroSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Avro-сериализация событий и снапшотов и их чтение десериализаторами Kafka.
+ * Размер снапшота растёт с числом датчиков хаба, поэтому он сравним только при одинаковом sensorsPerHub.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AvroCodecBenchmark {
+
+    private final SensorEventDeserializer eventDeserializer = new SensorEventDeserializer();
+    private final SensorsSnapshotDeserializer snapshotDeserializer = new SensorsSnapshotDeserializer();
+
+    private List<byte[]> encodedEvents;
+    private List<byte[]> encodedSnapshots;
+    private int eventCursor;
+    private int snapshotCursor;
+
+    @Setup(Level.Trial)
+    public void encode(DatasetState state) {
+        encodedEvents = state.dataset.sensorEvents().stream().map(AvroSerializer::serialize).toList();
+        encodedSnapshots = state.dataset.snapshots().stream().map(AvroSerializer::serialize).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeSensorEvent(DatasetState state) {
+        var events = state.dataset.sensorEvents();
+        eventCursor = (eventCursor + 1) % events.size();
+        return AvroSerializer.serialize(events.get(eventCursor));
+    }
+
+    @Benchmark
+    public SensorEventAvro deserializeSensorEvent() {
+        eventCursor = (eventCursor + 1) % encodedEvents.size();
+        return eventDeserializer.deserialize("telemetry.sensors.v1", encodedEvents.get(eventCursor));
+    }
+
+    @Benchmark
+    public byte[] serializeSnapshot(DatasetState state) {
+        var snapshots = state.dataset.snapshots();
+        snapshotCursor = (snapshotCursor + 1) % snapshots.size();
+        return AvroSerializer.serialize(snapshots.get(snapshotCursor));
+    }
+
+    @Benchmark
+    public SensorsSnapshotAvro deserializeSnapshot() {
+        snapshotCursor = (snapshotCursor + 1) % encodedSnapshots.size();
+        return snapshotDeserializer.deserialize("telemetry.snapshots.v1", encodedSnapshots.get(snapshotCursor));
+    }
+}
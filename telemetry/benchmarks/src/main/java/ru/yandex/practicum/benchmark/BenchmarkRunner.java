@@ -0,0 +1,25 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Точка входа benchmarks.jar: те же аргументы, что у JMH, но результаты по умолчанию пишутся в jmh-result.json.
+ * Сборка: mvn -P benchmarks -pl telemetry/benchmarks -am package,
+ * запуск: java -jar telemetry/benchmarks/target/benchmarks.jar [фильтр] [-p hubs=1000].
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(cli)
+                .resultFormat(cli.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cli.getResult().orElse("jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Общий для всех наборов бенчмарков набор данных; размеры задаются параметрами JMH (-p hubs=1000 и т.д.).
+ */
+@State(Scope.Benchmark)
+public class DatasetState {
+
+    @Param({"10", "100"})
+    public int hubs;
+
+    @Param({"20"})
+    public int sensorsPerHub;
+
+    @Param({"10"})
+    public int scenariosPerHub;
+
+    @Param({"4"})
+    public int eventsPerSensor;
+
+    public TelemetryDataset dataset;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        dataset = TelemetryDataset.generate(hubs, sensorsPerHub, scenariosPerHub, eventsPerSensor, 42L);
+    }
+}
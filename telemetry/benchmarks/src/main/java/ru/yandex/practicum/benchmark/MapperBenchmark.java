@@ -0,0 +1,41 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.kafka.telemetry.event.HubEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.mapper.ProtoToAvroHubMapper;
+import ru.yandex.practicum.mapper.ProtoToAvroSensorMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование gRPC-сообщений коллектора в Avro.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private final ProtoToAvroSensorMapper sensorMapper = new ProtoToAvroSensorMapper();
+    private final ProtoToAvroHubMapper hubMapper = new ProtoToAvroHubMapper();
+
+    private int sensorCursor;
+    private int hubCursor;
+
+    @Benchmark
+    public SensorEventAvro sensorToAvro(DatasetState state) {
+        var protos = state.dataset.sensorProtos();
+        sensorCursor = (sensorCursor + 1) % protos.size();
+        return sensorMapper.toAvro(protos.get(sensorCursor));
+    }
+
+    @Benchmark
+    public HubEventAvro hubToAvro(DatasetState state) {
+        var protos = state.dataset.hubProtos();
+        hubCursor = (hubCursor + 1) % protos.size();
+        return hubMapper.toAvro(protos.get(hubCursor));
+    }
+}
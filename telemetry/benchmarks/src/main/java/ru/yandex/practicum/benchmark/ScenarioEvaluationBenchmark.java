@@ -0,0 +1,36 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.model.CompiledScenario;
+import ru.yandex.practicum.processor.ScenarioEvaluator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка всех сценариев хаба по его снапшоту, как в анализаторе на каждый входящий снапшот.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScenarioEvaluationBenchmark {
+
+    private final ScenarioEvaluator evaluator = new ScenarioEvaluator();
+
+    private int hubCursor;
+
+    @Benchmark
+    public void evaluateHubScenarios(DatasetState state, Blackhole blackhole) {
+        hubCursor = (hubCursor + 1) % state.hubs;
+        SensorsSnapshotAvro snapshot = state.dataset.snapshots().get(hubCursor);
+        List<CompiledScenario> scenarios = state.dataset.scenariosByHub().get(hubCursor);
+        for (CompiledScenario scenario : scenarios) {
+            blackhole.consume(evaluator.conditionsMet(scenario, snapshot));
+        }
+    }
+}
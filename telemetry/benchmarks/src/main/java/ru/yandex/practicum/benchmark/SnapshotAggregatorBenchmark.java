@@ -0,0 +1,28 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.service.SnapshotAggregator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Применение всего потока событий набора к пустому агрегатору.
+ * Результат — время на поток целиком; на одно событие он делится на hubs × sensorsPerHub × eventsPerSensor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotAggregatorBenchmark {
+
+    @Benchmark
+    public void updateStateStream(DatasetState state, Blackhole blackhole) {
+        SnapshotAggregator aggregator = new SnapshotAggregator();
+        for (SensorEventAvro event : state.dataset.sensorEvents()) {
+            blackhole.consume(aggregator.updateState(event));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ru.yandex.practicum.benchmark;
+
+import com.google.protobuf.Timestamp;
+import ru.yandex.practicum.grpc.telemetry.event.*;
+import ru.yandex.practicum.kafka.telemetry.event.*;
+import ru.yandex.practicum.mapper.ProtoToAvroSensorMapper;
+import ru.yandex.practicum.model.*;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Синтетические данные телеметрии: хабы × датчики × сценарии.
+ * Генерация детерминирована по seed, чтобы результаты разных версий были сравнимы.
+ */
+public final class TelemetryDataset {
+
+    private static final int SENSOR_KINDS = 5;
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final List<SensorEventProto> sensorProtos = new ArrayList<>();
+    private final List<HubEventProto> hubProtos = new ArrayList<>();
+    private final List<SensorEventAvro> sensorEvents = new ArrayList<>();
+    private final List<SensorsSnapshotAvro> snapshots = new ArrayList<>();
+    private final List<List<CompiledScenario>> scenariosByHub = new ArrayList<>();
+
+    private TelemetryDataset() {
+    }
+
+    /**
+     * @param eventsPerSensor сколько показаний подряд приходит от каждого датчика;
+     *                        примерно треть из них повторяет предыдущее значение
+     */
+    public static TelemetryDataset generate(int hubs, int sensorsPerHub, int scenariosPerHub,
+                                            int eventsPerSensor, long seed) {
+        Random random = new Random(seed);
+        TelemetryDataset dataset = new TelemetryDataset();
+        ProtoToAvroSensorMapper mapper = new ProtoToAvroSensorMapper();
+
+        for (int h = 0; h < hubs; h++) {
+            String hubId = "hub-" + h;
+            Map<String, SensorStateAvro> state = new HashMap<>();
+            List<Sensor> sensors = new ArrayList<>();
+
+            for (int s = 0; s < sensorsPerHub; s++) {
+                String sensorId = hubId + "-sensor-" + s;
+                sensors.add(Sensor.builder().id(sensorId).hubId(hubId).build());
+                dataset.hubProtos.add(deviceAdded(hubId, sensorId, s % SENSOR_KINDS));
+
+                SensorEventProto previous = null;
+                for (int e = 0; e < eventsPerSensor; e++) {
+                    Instant timestamp = START.plusSeconds((long) e * 60 + s);
+                    SensorEventProto proto = previous != null && random.nextInt(3) == 0
+                            ? previous.toBuilder().setTimestamp(toProto(timestamp)).build()
+                            : sensorEvent(hubId, sensorId, s % SENSOR_KINDS, timestamp, random);
+                    previous = proto;
+                    dataset.sensorProtos.add(proto);
+                    SensorEventAvro avro = mapper.toAvro(proto);
+                    dataset.sensorEvents.add(avro);
+                    state.put(sensorId, SensorStateAvro.newBuilder()
+                            .setTimestamp(avro.getTimestamp())
+                            .setData(avro.getPayload())
+                            .build());
+                }
+            }
+
+            dataset.snapshots.add(SensorsSnapshotAvro.newBuilder()
+                    .setHubId(hubId)
+                    .setTimestamp(START)
+                    .setSensorsState(state)
+                    .build());
+
+            List<CompiledScenario> scenarios = new ArrayList<>();
+            for (int c = 0; c < scenariosPerHub; c++) {
+                scenarios.add(scenario(hubId, "scenario-" + c, sensors, random));
+                dataset.hubProtos.add(scenarioAdded(hubId, "scenario-" + c, sensors, random));
+            }
+            dataset.scenariosByHub.add(scenarios);
+        }
+
+        // События разных хабов и датчиков перемешаны, как в топике; порядок внутри датчика сохраняется
+        dataset.sensorEvents.sort(Comparator.comparing(SensorEventAvro::getTimestamp));
+        Collections.shuffle(dataset.sensorProtos, random);
+        Collections.shuffle(dataset.hubProtos, random);
+        // Устройства регистрируются раньше сценариев, иначе analyzer не привяжет к сценарию условия и действия
+        dataset.hubProtos.sort(Comparator.comparing(p -> p.getPayloadCase() != HubEventProto.PayloadCase.DEVICE_ADDED));
+        return dataset;
+    }
+
+    public List<SensorEventProto> sensorProtos() {
+        return sensorProtos;
+    }
+
+    public List<HubEventProto> hubProtos() {
+        return hubProtos;
+    }
+
+    public List<SensorEventAvro> sensorEvents() {
+        return sensorEvents;
+    }
+
+    public List<SensorsSnapshotAvro> snapshots() {
+        return snapshots;
+    }
+
+    public List<List<CompiledScenario>> scenariosByHub() {
+        return scenariosByHub;
+    }
+
+    private static SensorEventProto sensorEvent(String hubId, String sensorId, int kind, Instant timestamp,
+                                                Random random) {
+        SensorEventProto.Builder builder = SensorEventProto.newBuilder()
+                .setId(sensorId)
+                .setHubId(hubId)
+                .setTimestamp(toProto(timestamp));
+        return switch (kind) {
+            case 0 -> builder.setMotionSensor(MotionSensorProto.newBuilder()
+                    .setLinkQuality(random.nextInt(100))
+                    .setMotion(random.nextBoolean())
+                    .setVoltage(200 + random.nextInt(40))).build();
+            case 1 -> {
+                int celsius = random.nextInt(40) - 10;
+                yield builder.setTemperatureSensor(TemperatureSensorProto.newBuilder()
+                        .setTemperatureC(celsius)
+                        .setTemperatureF(celsius * 9 / 5 + 32)).build();
+            }
+            case 2 -> builder.setLightSensor(LightSensorProto.newBuilder()
+                    .setLinkQuality(random.nextInt(100))
+                    .setLuminosity(random.nextInt(1000))).build();
+            case 3 -> builder.setClimateSensor(ClimateSensorProto.newBuilder()
+                    .setTemperatureC(random.nextInt(35))
+                    .setHumidity(random.nextInt(100))
+                    .setCo2Level(400 + random.nextInt(1600))).build();
+            default -> builder.setSwitchSensor(SwitchSensorProto.newBuilder()
+                    .setState(random.nextBoolean())).build();
+        };
+    }
+
+    private static HubEventProto deviceAdded(String hubId, String sensorId, int kind) {
+        return HubEventProto.newBuilder()
+                .setHubId(hubId)
+                .setTimestamp(toProto(START))
+                .setDeviceAdded(DeviceAddedEventProto.newBuilder()
+                        .setId(sensorId)
+                        .setType(DeviceTypeProto.forNumber(kind)))
+                .build();
+    }
+
+    private static HubEventProto scenarioAdded(String hubId, String name, List<Sensor> sensors, Random random) {
+        ScenarioAddedEventProto.Builder scenario = ScenarioAddedEventProto.newBuilder().setName(name);
+        for (int i = 0; i < 1 + random.nextInt(3); i++) {
+            Sensor sensor = sensors.get(random.nextInt(sensors.size()));
+            scenario.addCondition(ScenarioConditionProto.newBuilder()
+                    .setSensorId(sensor.getId())
+                    .setType(ConditionTypeProto.TEMPERATURE)
+                    .setOperation(ConditionOperationProto.GREATER_THAN)
+                    .setIntValue(random.nextInt(30)));
+        }
+        scenario.addAction(DeviceActionProto.newBuilder()
+                .setSensorId(sensors.get(random.nextInt(sensors.size())).getId())
+                .setType(ActionTypeProto.ACTIVATE));
+        return HubEventProto.newBuilder()
+                .setHubId(hubId)
+                .setTimestamp(toProto(START))
+                .setScenarioAdded(scenario)
+                .build();
+    }
+
+    private static CompiledScenario scenario(String hubId, String name, List<Sensor> sensors, Random random) {
+        List<CompiledCondition> conditions = new ArrayList<>();
+        for (int i = 0; i < 1 + random.nextInt(3); i++) {
+            Sensor sensor = sensors.get(random.nextInt(sensors.size()));
+            conditions.add(new CompiledCondition(sensor.getId(), ConditionType.TEMPERATURE,
+                    ConditionOperation.values()[random.nextInt(ConditionOperation.values().length)],
+                    random.nextInt(30)));
+        }
+        return new CompiledScenario(hubId, name, conditions, List.of());
+    }
+
+    private static Timestamp toProto(Instant instant) {
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.benchmark.pipeline;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Отставание групп потребителей сервисов: разница между концом топика и закоммиченным смещением.
+ */
+final class ConsumerLagProbe implements AutoCloseable {
+
+    private static final Duration PROBE_INTERVAL = Duration.ofMillis(500);
+
+    private final Admin admin;
+    private final Map<String, String> topicsByGroup;
+    private final Map<String, Long> maxLag = new ConcurrentHashMap<>();
+
+    ConsumerLagProbe(String bootstrapServers, Map<String, String> topicsByGroup) {
+        this.admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+        this.topicsByGroup = topicsByGroup;
+    }
+
+    /**
+     * Текущее отставание группы; смещения партиций без коммита считаются с начала топика.
+     */
+    long lag(String group) throws ExecutionException, InterruptedException {
+        String topic = topicsByGroup.get(group);
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(group)
+                .partitionsToOffsetAndMetadata().get();
+        Map<TopicPartition, OffsetSpec> partitions = admin.describeTopics(List.of(topic))
+                .allTopicNames().get().get(topic).partitions().stream()
+                .collect(Collectors.toMap(p -> new TopicPartition(topic, p.partition()), p -> OffsetSpec.latest()));
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin.listOffsets(partitions).all().get();
+
+        long lag = 0;
+        for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end : ends.entrySet()) {
+            OffsetAndMetadata offset = committed.get(end.getKey());
+            lag += end.getValue().offset() - (offset == null ? 0 : offset.offset());
+        }
+        maxLag.merge(group, lag, Math::max);
+        return lag;
+    }
+
+    /**
+     * Снимает отставание всех групп; вызывается периодически, чтобы зафиксировать максимум за прогон.
+     */
+    void sample() throws ExecutionException, InterruptedException {
+        for (String group : topicsByGroup.keySet()) {
+            lag(group);
+        }
+    }
+
+    /**
+     * Ждёт, пока отставание группы дважды подряд не окажется нулевым: продюсер предыдущего этапа
+     * может ещё не дописать последние записи в момент первой проверки.
+     */
+    boolean awaitDrained(String group, Duration timeout) throws ExecutionException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int zeroInRow = 0;
+        while (System.nanoTime() < deadline) {
+            zeroInRow = lag(group) == 0 ? zeroInRow + 1 : 0;
+            if (zeroInRow == 2) {
+                return true;
+            }
+            Thread.sleep(PROBE_INTERVAL.toMillis());
+        }
+        return false;
+    }
+
+    Duration interval() {
+        return PROBE_INTERVAL;
+    }
+
+    Map<String, Long> maxLag() {
+        return maxLag;
+    }
+
+    @Override
+    public void close() {
+        admin.close();
+    }
+}
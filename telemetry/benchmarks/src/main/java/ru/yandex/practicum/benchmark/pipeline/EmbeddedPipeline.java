@@ -0,0 +1,114 @@
+package ru.yandex.practicum.benchmark.pipeline;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Конвейер телеметрии целиком в одной JVM: встроенная Kafka, H2 в режиме PostgreSQL,
+ * заглушка hub-router и контексты collector, aggregator и analyzer.
+ */
+@Slf4j
+final class EmbeddedPipeline implements AutoCloseable {
+
+    static final String SENSORS_TOPIC = "telemetry.sensors.v1";
+    static final String SNAPSHOTS_TOPIC = "telemetry.snapshots.v1";
+    static final String HUBS_TOPIC = "telemetry.hubs.v1";
+
+    static final String AGGREGATOR_GROUP = "aggregator-group";
+    static final String SNAPSHOTS_GROUP = "analyzer-snapshots-group";
+    static final String HUB_EVENTS_GROUP = "analyzer-hub-events-group";
+
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final StubHubRouter hubRouter;
+    private final Map<String, ConfigurableApplicationContext> contexts = new LinkedHashMap<>();
+    private final ManagedChannel collectorChannel;
+    private final ConsumerLagProbe lagProbe;
+
+    private EmbeddedPipeline(LoadTestOptions options) throws IOException {
+        kafka = new EmbeddedKafkaKraftBroker(1, options.partitions(), SENSORS_TOPIC, SNAPSHOTS_TOPIC, HUBS_TOPIC);
+        kafka.afterPropertiesSet();
+        hubRouter = new StubHubRouter();
+        int collectorPort = freePort();
+
+        List<String> args = new ArrayList<>(List.of(
+                "--pipeline.bootstrap-servers=" + kafka.getBrokersAsString(),
+                "--pipeline.collector-port=" + collectorPort,
+                "--pipeline.hub-router-port=" + hubRouter.port(),
+                "--pipeline.sample-rate=" + options.sampleRate(),
+                "--analyzer.scenario-storage=" + options.scenarioStorage()));
+
+        // Циклы опроса запускает ConsumerLifecycle каждого контекста
+        run(PipelineApplications.Analyzer.class, "analyzer", args);
+        run(PipelineApplications.Aggregator.class, "aggregator", args);
+        run(PipelineApplications.Collector.class, "collector", args);
+
+        collectorChannel = ManagedChannelBuilder.forTarget("dns:///localhost:" + collectorPort)
+                .usePlaintext()
+                .build();
+        lagProbe = new ConsumerLagProbe(kafka.getBrokersAsString(), Map.of(
+                AGGREGATOR_GROUP, SENSORS_TOPIC,
+                SNAPSHOTS_GROUP, SNAPSHOTS_TOPIC,
+                HUB_EVENTS_GROUP, HUBS_TOPIC));
+        log.info("Pipeline started: kafka={}, collector port={}, hub-router port={}",
+                kafka.getBrokersAsString(), collectorPort, hubRouter.port());
+    }
+
+    static EmbeddedPipeline start(LoadTestOptions options) throws IOException {
+        return new EmbeddedPipeline(options);
+    }
+
+    ManagedChannel collectorChannel() {
+        return collectorChannel;
+    }
+
+    ConsumerLagProbe lagProbe() {
+        return lagProbe;
+    }
+
+    StubHubRouter hubRouter() {
+        return hubRouter;
+    }
+
+    Map<String, ConfigurableApplicationContext> contexts() {
+        return contexts;
+    }
+
+    private void run(Class<?> source, String name, List<String> args) {
+        List<String> appArgs = new ArrayList<>(args);
+        appArgs.add("--spring.config.location=classpath:/pipeline/common.yaml,classpath:/pipeline/" + name + ".yaml");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(source)
+                .run(appArgs.toArray(String[]::new));
+        contexts.put(name, context);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Контексты закрываются в обратном порядке запуска, начиная с collector, пока брокер ещё жив:
+     * каждый цикл опроса успевает дообработать запись и закоммитить смещения.
+     */
+    @Override
+    public void close() {
+        collectorChannel.shutdownNow();
+        lagProbe.close();
+        List<ConfigurableApplicationContext> started = new ArrayList<>(contexts.values());
+        started.reversed().forEach(ConfigurableApplicationContext::close);
+        hubRouter.close();
+        kafka.destroy();
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.benchmark.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.model.CompiledScenario;
+import ru.yandex.practicum.model.ScenarioDocument;
+import ru.yandex.practicum.repository.ScenarioDocumentRepository;
+import ru.yandex.practicum.storage.DocumentScenarioStore;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Документное хранилище поверх H2: H2 не разбирает ON CONFLICT с целевыми столбцами,
+ * поэтому upsert выполняется через MERGE ... KEY. Чтение и удаление те же, что в анализаторе.
+ */
+final class H2DocumentScenarioStore extends DocumentScenarioStore {
+
+    private static final String MERGE_DOCUMENT = """
+            MERGE INTO scenario_documents (hub_id, name, format_version, document, updated_at)
+            KEY (hub_id, name)
+            VALUES (?, ?, ?, ? FORMAT JSON, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    H2DocumentScenarioStore(ScenarioDocumentRepository documentRepository, ObjectMapper objectMapper,
+                            JdbcTemplate jdbcTemplate) {
+        super(documentRepository, objectMapper);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void save(CompiledScenario scenario) {
+        jdbcTemplate.update(MERGE_DOCUMENT, scenario.hubId(), scenario.name(), ScenarioDocument.FORMAT_VERSION,
+                toJson(scenario), OffsetDateTime.now());
+    }
+}
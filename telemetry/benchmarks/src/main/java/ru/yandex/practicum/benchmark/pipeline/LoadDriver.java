@@ -0,0 +1,101 @@
+package ru.yandex.practicum.benchmark.pipeline;
+
+import com.google.protobuf.Empty;
+import com.google.protobuf.Timestamp;
+import io.grpc.ManagedChannel;
+import io.grpc.stub.StreamObserver;
+import ru.yandex.practicum.grpc.telemetry.collector.CollectorControllerGrpc;
+import ru.yandex.practicum.grpc.telemetry.event.HubEventProto;
+import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Отправляет показания датчиков в gRPC API коллектора с заданной частотой.
+ * Расписание открытое: отставание от него догоняется пачкой, а не сдвигает следующие отправки.
+ */
+final class LoadDriver {
+
+    private final CollectorControllerGrpc.CollectorControllerStub asyncStub;
+    private final CollectorControllerGrpc.CollectorControllerBlockingStub blockingStub;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final AtomicLong acked = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    LoadDriver(ManagedChannel channel, int maxInFlight) {
+        this.asyncStub = CollectorControllerGrpc.newStub(channel);
+        this.blockingStub = CollectorControllerGrpc.newBlockingStub(channel);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    void sendHubEvents(List<HubEventProto> events) {
+        events.forEach(blockingStub::collectHubEvent);
+    }
+
+    /**
+     * Показания берутся из набора по кругу с текущей отметкой времени, иначе агрегатор отбросит их как устаревшие.
+     */
+    Result run(List<SensorEventProto> events, int ratePerSecond, Duration duration) throws InterruptedException {
+        StreamObserver<Empty> observer = new StreamObserver<>() {
+            @Override
+            public void onNext(Empty value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                failed.incrementAndGet();
+                inFlight.release();
+            }
+
+            @Override
+            public void onCompleted() {
+                acked.incrementAndGet();
+                inFlight.release();
+            }
+        };
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        long next = start;
+        long sent = 0;
+        while (next < deadline) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            inFlight.acquire();
+            SensorEventProto event = events.get((int) (sent % events.size()));
+            asyncStub.collectSensorEvent(event.toBuilder().setTimestamp(toProto(Instant.now())).build(), observer);
+            sent++;
+            next += intervalNanos;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        inFlight.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS);
+        return new Result(sent, acked.get(), failed.get(), Duration.ofNanos(elapsed));
+    }
+
+    private static Timestamp toProto(Instant instant) {
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+
+    record Result(long sent, long acked, long failed, Duration elapsed) {
+
+        double offeredRate() {
+            return sent / (elapsed.toNanos() / 1e9);
+        }
+    }
+}
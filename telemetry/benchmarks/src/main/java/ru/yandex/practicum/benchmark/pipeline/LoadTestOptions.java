@@ -0,0 +1,58 @@
+package ru.yandex.practicum.benchmark.pipeline;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного прогона в виде key=value, например: rate=5000 duration=60 hubs=200.
+ */
+record LoadTestOptions(int hubs,
+                       int sensorsPerHub,
+                       int scenariosPerHub,
+                       int eventsPerSensor,
+                       int rate,
+                       Duration duration,
+                       Duration drainTimeout,
+                       int partitions,
+                       int maxInFlight,
+                       double sampleRate,
+                       String scenarioStorage) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Ожидался аргумент вида key=value: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                intValue(values, "hubs", 100),
+                intValue(values, "sensorsPerHub", 20),
+                intValue(values, "scenariosPerHub", 10),
+                intValue(values, "eventsPerSensor", 4),
+                intValue(values, "rate", 2000),
+                Duration.ofSeconds(intValue(values, "duration", 30)),
+                Duration.ofSeconds(intValue(values, "drainTimeout", 60)),
+                intValue(values, "partitions", 1),
+                intValue(values, "maxInFlight", 5000),
+                Double.parseDouble(stringValue(values, "sampleRate", "0.1")),
+                stringValue(values, "scenarioStorage", "relational"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Неизвестные параметры: " + values.keySet());
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        return Integer.parseInt(stringValue(values, key, String.valueOf(defaultValue)));
+    }
+
+    private static String stringValue(Map<String, String> values, String key, String defaultValue) {
+        String value = values.remove(key);
+        return value == null ? defaultValue : value;
+    }
+}
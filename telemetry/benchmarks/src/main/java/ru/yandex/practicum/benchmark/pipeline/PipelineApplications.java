@@ -0,0 +1,80 @@
+package ru.yandex.practicum.benchmark.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.consumer.ConsumerMetrics;
+import ru.yandex.practicum.consumer.ConsumerProperties;
+import ru.yandex.practicum.controller.CollectorGrpcController;
+import ru.yandex.practicum.mapper.ProtoToAvroSensorMapper;
+import ru.yandex.practicum.model.Scenario;
+import ru.yandex.practicum.processor.SnapshotProcessor;
+import ru.yandex.practicum.repository.ScenarioDocumentRepository;
+import ru.yandex.practicum.repository.ScenarioRepository;
+import ru.yandex.practicum.service.EventServiceImpl;
+import ru.yandex.practicum.service.SnapshotAggregator;
+import ru.yandex.practicum.storage.CompactionProperties;
+import ru.yandex.practicum.storage.ScenarioStore;
+import ru.yandex.practicum.starter.AggregationStarter;
+import ru.yandex.practicum.tracing.PipelineTracer;
+import ru.yandex.practicum.tracing.TracingProperties;
+
+/**
+ * Контексты collector, aggregator и analyzer для запуска в одной JVM.
+ * У сервисов общий корневой пакет, поэтому каждый контекст сканирует только пакеты своего сервиса
+ * вместо @SpringBootApplication из *App.
+ */
+final class PipelineApplications {
+
+    private PipelineApplications() {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+    @EnableConfigurationProperties(TracingProperties.class)
+    @ComponentScan(
+            basePackageClasses = {CollectorGrpcController.class, ProtoToAvroSensorMapper.class,
+                    EventServiceImpl.class, PipelineTracer.class},
+            excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = SnapshotAggregator.class))
+    static class Collector {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+    @EnableConfigurationProperties({TracingProperties.class, ConsumerProperties.class})
+    @ComponentScan(
+            basePackageClasses = {AggregationStarter.class, SnapshotAggregator.class, PipelineTracer.class,
+                    ConsumerMetrics.class},
+            excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = EventServiceImpl.class))
+    static class Aggregator {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EnableConfigurationProperties({TracingProperties.class, ConsumerProperties.class, CompactionProperties.class})
+    @ComponentScan(basePackageClasses = {SnapshotProcessor.class, ScenarioStore.class, PipelineTracer.class,
+            ConsumerMetrics.class})
+    @EnableJpaRepositories(basePackageClasses = ScenarioRepository.class)
+    @EntityScan(basePackageClasses = Scenario.class)
+    static class Analyzer {
+
+        @Bean
+        @Primary
+        @ConditionalOnProperty(prefix = "analyzer", name = "scenario-storage", havingValue = "document")
+        ScenarioStore h2DocumentScenarioStore(ScenarioDocumentRepository documentRepository,
+                                              ObjectMapper objectMapper, JdbcTemplate jdbcTemplate) {
+            return new H2DocumentScenarioStore(documentRepository, objectMapper, jdbcTemplate);
+        }
+    }
+}
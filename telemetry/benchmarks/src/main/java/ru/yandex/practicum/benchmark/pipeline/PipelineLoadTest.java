@@ -0,0 +1,150 @@
+package ru.yandex.practicum.benchmark.pipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.benchmark.TelemetryDataset;
+import ru.yandex.practicum.consumer.ConsumerLagHealthIndicator;
+import ru.yandex.practicum.storage.OrphanCompactionJob;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный прогон collector → aggregator → analyzer без внешней инфраструктуры.
+ * Сборка: mvn -P benchmarks -pl telemetry/benchmarks -am package,
+ * запуск: java -cp telemetry/benchmarks/target/benchmarks.jar
+ * ru.yandex.practicum.benchmark.pipeline.PipelineLoadTest rate=5000 duration=60 hubs=200.
+ */
+@Slf4j
+public class PipelineLoadTest {
+
+    private static final long SEED = 42L;
+    private static final Duration HUB_EVENTS_TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        TelemetryDataset dataset = TelemetryDataset.generate(options.hubs(), options.sensorsPerHub(),
+                options.scenariosPerHub(), options.eventsPerSensor(), SEED);
+
+        try (EmbeddedPipeline pipeline = EmbeddedPipeline.start(options)) {
+            ConsumerLagProbe lagProbe = pipeline.lagProbe();
+            LoadDriver driver = new LoadDriver(pipeline.collectorChannel(), options.maxInFlight());
+
+            log.info("Registering {} devices and scenarios", dataset.hubProtos().size());
+            driver.sendHubEvents(dataset.hubProtos());
+            if (!lagProbe.awaitDrained(EmbeddedPipeline.HUB_EVENTS_GROUP, HUB_EVENTS_TIMEOUT)) {
+                throw new IllegalStateException("Analyzer did not apply hub events in " + HUB_EVENTS_TIMEOUT);
+            }
+
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            long interval = lagProbe.interval().toMillis();
+            sampler.scheduleAtFixedRate(() -> {
+                try {
+                    lagProbe.sample();
+                } catch (Exception e) {
+                    log.warn("Lag probe failed: {}", e.getMessage());
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+
+            log.info("Sending sensor events at {}/s for {}", options.rate(), options.duration());
+            long start = System.nanoTime();
+            LoadDriver.Result result = driver.run(dataset.sensorProtos(), options.rate(), options.duration());
+
+            log.info("Load finished, waiting for consumers to drain");
+            boolean drained = lagProbe.awaitDrained(EmbeddedPipeline.AGGREGATOR_GROUP, options.drainTimeout())
+                    && lagProbe.awaitDrained(EmbeddedPipeline.SNAPSHOTS_GROUP, options.drainTimeout());
+            Duration untilDrained = Duration.ofNanos(System.nanoTime() - start);
+            sampler.shutdownNow();
+
+            printReport(options, result, drained, untilDrained, pipeline);
+        }
+        System.exit(0);
+    }
+
+    private static void printReport(LoadTestOptions options, LoadDriver.Result result, boolean drained,
+                                    Duration untilDrained, EmbeddedPipeline pipeline) throws Exception {
+        ConsumerLagProbe lagProbe = pipeline.lagProbe();
+        System.out.printf("%nPipeline load test: hubs=%d sensorsPerHub=%d scenariosPerHub=%d partitions=%d"
+                        + " scenarioStorage=%s%n",
+                options.hubs(), options.sensorsPerHub(), options.scenariosPerHub(), options.partitions(),
+                options.scenarioStorage());
+        System.out.printf("Offered:   %d events in %.1f s (%.0f events/s, target %d)%n",
+                result.sent(), seconds(result.elapsed()), result.offeredRate(), options.rate());
+        System.out.printf("Collector: %d acked, %d failed%n", result.acked(), result.failed());
+        if (drained) {
+            System.out.printf("Sustained: %.0f events/s through aggregator and analyzer (drained in %.1f s)%n",
+                    result.acked() / seconds(untilDrained), seconds(untilDrained));
+        } else {
+            System.out.printf("Sustained: not drained in %s, lag aggregator=%d analyzer=%d%n",
+                    options.drainTimeout(),
+                    lagProbe.lag(EmbeddedPipeline.AGGREGATOR_GROUP),
+                    lagProbe.lag(EmbeddedPipeline.SNAPSHOTS_GROUP));
+        }
+        System.out.printf("Hub-router actions: %d%n", pipeline.hubRouter().actions());
+
+        System.out.println("Max consumer lag:");
+        lagProbe.maxLag().forEach((group, lag) -> System.out.printf("  %-28s %d%n", group, lag));
+
+        System.out.printf("Stage latency, ms (sample rate %.2f):%n", options.sampleRate());
+        System.out.printf("  %-10s %-9s %-24s %9s %9s %9s %9s%n", "service", "stage", "topic", "count", "p50", "p95", "p99");
+        for (Map.Entry<String, ConfigurableApplicationContext> entry : pipeline.contexts().entrySet()) {
+            MeterRegistry registry = entry.getValue().getBean(MeterRegistry.class);
+            for (Timer timer : registry.find("telemetry.pipeline.stage").timers()) {
+                HistogramSnapshot snapshot = timer.takeSnapshot();
+                if (snapshot.count() == 0) {
+                    continue;
+                }
+                System.out.printf("  %-10s %-9s %-24s %9d", entry.getKey(), timer.getId().getTag("stage"),
+                        timer.getId().getTag("topic"), snapshot.count());
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    System.out.printf(" %9.2f", percentile.value(TimeUnit.MILLISECONDS));
+                }
+                System.out.println();
+            }
+        }
+
+        System.out.println("Consumer loops, processing ms per record:");
+        System.out.printf("  %-20s %9s %9s %9s %9s %12s %s%n", "loop", "records", "p50", "p95", "p99", "commit fail", "readiness");
+        for (ConfigurableApplicationContext context : pipeline.contexts().values()) {
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            String readiness = context.getBeansOfType(ConsumerLagHealthIndicator.class).values().stream()
+                    .map(indicator -> indicator.health().getStatus().getCode())
+                    .findFirst()
+                    .orElse("-");
+            for (Timer timer : registry.find("telemetry.consumer.process").timers()) {
+                String loop = timer.getId().getTag("loop");
+                HistogramSnapshot snapshot = timer.takeSnapshot();
+                double failedCommits = registry.find("telemetry.consumer.commit")
+                        .tags("loop", loop, "result", "failure")
+                        .timers().stream()
+                        .mapToLong(Timer::count)
+                        .sum();
+                System.out.printf("  %-20s %9d", loop, snapshot.count());
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    System.out.printf(" %9.2f", percentile.value(TimeUnit.MILLISECONDS));
+                }
+                System.out.printf(" %12.0f %s%n", failedCommits, readiness);
+            }
+        }
+
+        pipeline.contexts().get("analyzer").getBeanProvider(OrphanCompactionJob.class).ifAvailable(job -> {
+            OrphanCompactionJob.Result compaction = job.compact();
+            System.out.println("Scenario tables, rows before -> after compaction:");
+            System.out.printf("  %-20s %9d -> %d%n", "conditions", compaction.conditionsBefore(),
+                    compaction.conditionsAfter());
+            System.out.printf("  %-20s %9d -> %d%n", "actions", compaction.actionsBefore(),
+                    compaction.actionsAfter());
+        });
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1e9;
+    }
+}
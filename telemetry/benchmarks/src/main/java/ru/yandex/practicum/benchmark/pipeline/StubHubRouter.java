@@ -0,0 +1,44 @@
+package ru.yandex.practicum.benchmark.pipeline;
+
+import com.google.protobuf.Empty;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.StreamObserver;
+import ru.yandex.practicum.grpc.telemetry.event.DeviceActionRequest;
+import ru.yandex.practicum.grpc.telemetry.hubrouter.HubRouterControllerGrpc;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Заглушка hub-router: подтверждает каждое действие и только считает их.
+ */
+final class StubHubRouter extends HubRouterControllerGrpc.HubRouterControllerImplBase implements AutoCloseable {
+
+    private final AtomicLong actions = new AtomicLong();
+    private final Server server;
+
+    StubHubRouter() throws IOException {
+        server = ServerBuilder.forPort(0).addService(this).build().start();
+    }
+
+    int port() {
+        return server.getPort();
+    }
+
+    long actions() {
+        return actions.get();
+    }
+
+    @Override
+    public void handleDeviceAction(DeviceActionRequest request, StreamObserver<Empty> responseObserver) {
+        actions.incrementAndGet();
+        responseObserver.onNext(Empty.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void close() {
+        server.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+-- Схема analyzer для H2 в режиме PostgreSQL: те же таблицы, что в analyzer/schema.sql,
+-- но без функции и триггеров на plpgsql, которых H2 не поддерживает
+
+-- создаём таблицу scenarios
+create TABLE IF NOT EXISTS scenarios (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    hub_id VARCHAR,
+    name VARCHAR,
+    UNIQUE(hub_id, name)
+);
+
+-- создаём таблицу sensors
+create TABLE IF NOT EXISTS sensors (
+    id VARCHAR PRIMARY KEY,
+    hub_id VARCHAR
+);
+
+-- создаём таблицу conditions
+create TABLE IF NOT EXISTS conditions (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    type VARCHAR,
+    operation VARCHAR,
+    value INTEGER
+);
+
+-- создаём таблицу actions
+create TABLE IF NOT EXISTS actions (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    type VARCHAR,
+    value INTEGER
+);
+
+-- создаём таблицу scenario_conditions, связывающую сценарий, датчик и условие активации сценария
+create TABLE IF NOT EXISTS scenario_conditions (
+    scenario_id BIGINT REFERENCES scenarios(id),
+    sensor_id VARCHAR REFERENCES sensors(id),
+    condition_id BIGINT REFERENCES conditions(id),
+    PRIMARY KEY (scenario_id, sensor_id, condition_id)
+);
+
+-- создаём таблицу scenario_actions, связывающую сценарий, датчик и действие, которое нужно выполнить при активации сценария
+create TABLE IF NOT EXISTS scenario_actions (
+    scenario_id BIGINT REFERENCES scenarios(id),
+    sensor_id VARCHAR REFERENCES sensors(id),
+    action_id BIGINT REFERENCES actions(id),
+    PRIMARY KEY (scenario_id, sensor_id, action_id)
+);
+
+-- индексы для поиска условий и действий по содержимому и для поиска строк, на которые никто не ссылается
+create INDEX IF NOT EXISTS conditions_content_idx ON conditions (type, operation, value);
+create INDEX IF NOT EXISTS actions_content_idx ON actions (type, value);
+create INDEX IF NOT EXISTS scenario_conditions_condition_idx ON scenario_conditions (condition_id);
+create INDEX IF NOT EXISTS scenario_actions_action_idx ON scenario_actions (action_id);
+
+-- создаём таблицу scenario_documents; в H2 нет JSONB, тот же документ хранится в JSON
+create TABLE IF NOT EXISTS scenario_documents (
+    hub_id VARCHAR NOT NULL,
+    name VARCHAR NOT NULL,
+    format_version INTEGER NOT NULL,
+    document JSON NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (hub_id, name)
+);
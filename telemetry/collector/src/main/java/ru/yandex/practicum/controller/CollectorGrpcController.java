@@ -12,6 +12,11 @@ import ru.yandex.practicum.grpc.telemetry.event.HubEventProto;
 import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
 import ru.yandex.practicum.mapper.*;
 import ru.yandex.practicum.service.EventService;
+import ru.yandex.practicum.tracing.PipelineTracer;
+import ru.yandex.practicum.tracing.TraceContext;
+
+import java.time.Instant;
+import java.util.Optional;
 
 @Slf4j
 @GrpcService
@@ -21,13 +26,19 @@ public class CollectorGrpcController extends CollectorControllerGrpc.CollectorCo
     private final EventService eventService;
     private final ProtoToAvroSensorMapper sensorMapper;
     private final ProtoToAvroHubMapper hubMapper;
+    private final PipelineTracer tracer;
 
     @Override
     public void collectSensorEvent(SensorEventProto request, StreamObserver<Empty> responseObserver) {
         log.info("gRPC: получен SensorEventProto: {}", request);
+        Optional<TraceContext> trace = tracer.sample(Instant.now());
         try {
             var avro = sensorMapper.toAvro(request);
-            eventService.sendSensorEvent(avro);
+            if (trace.isPresent()) {
+                eventService.sendSensorEvent(avro, trace.get());
+            } else {
+                eventService.sendSensorEvent(avro);
+            }
             responseObserver.onNext(Empty.getDefaultInstance());
             responseObserver.onCompleted();
         } catch (Exception e) {
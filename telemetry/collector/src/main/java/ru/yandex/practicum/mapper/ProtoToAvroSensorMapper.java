@@ -10,13 +10,14 @@ import java.time.Instant;
 public class ProtoToAvroSensorMapper {
 
     public SensorEventAvro toAvro(SensorEventProto proto) {
+        Instant timestamp = Instant.ofEpochSecond(
+                proto.getTimestamp().getSeconds(),
+                proto.getTimestamp().getNanos()
+        );
         SensorEventAvro.Builder builder = SensorEventAvro.newBuilder()
                 .setId(proto.getId())
                 .setHubId(proto.getHubId())
-                .setTimestamp(Instant.ofEpochSecond(
-                        proto.getTimestamp().getSeconds(),
-                        proto.getTimestamp().getNanos()
-                ));
+                .setTimestamp(timestamp);
         return switch (proto.getPayloadCase()) {
             case MOTION_SENSOR -> {
                 MotionSensorProto m = proto.getMotionSensor();
@@ -29,7 +30,11 @@ public class ProtoToAvroSensorMapper {
             }
             case TEMPERATURE_SENSOR -> {
                 TemperatureSensorProto t = proto.getTemperatureSensor();
+                // В схеме Avro показание температуры дублирует id, hubId и timestamp события
                 yield builder.setPayload(TemperatureSensorAvro.newBuilder()
+                                .setId(proto.getId())
+                                .setHubId(proto.getHubId())
+                                .setTimestamp(timestamp)
                                 .setTemperatureC(t.getTemperatureC())
                                 .setTemperatureF(t.getTemperatureF())
                                 .build())
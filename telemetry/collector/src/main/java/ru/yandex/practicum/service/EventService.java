@@ -2,10 +2,16 @@ package ru.yandex.practicum.service;
 
 import ru.yandex.practicum.kafka.telemetry.event.HubEventAvro;
 import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.tracing.TraceContext;
 
 public interface EventService {
 
     void sendSensorEvent(SensorEventAvro sensorEvent);
 
+    /**
+     * Отправка события, отобранного для трассировки: контекст уходит в заголовках записи.
+     */
+    void sendSensorEvent(SensorEventAvro sensorEvent, TraceContext trace);
+
     void sendHubEvent(HubEventAvro hubEvent);
 }
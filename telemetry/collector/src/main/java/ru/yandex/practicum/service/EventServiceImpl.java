@@ -2,12 +2,16 @@ package ru.yandex.practicum.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.kafka.telemetry.event.HubEventAvro;
 import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
 import ru.yandex.practicum.serializer.AvroSerializer;
+import ru.yandex.practicum.tracing.PipelineStage;
+import ru.yandex.practicum.tracing.PipelineTracer;
+import ru.yandex.practicum.tracing.TraceContext;
 
 @Slf4j
 @Service
@@ -15,6 +19,7 @@ import ru.yandex.practicum.serializer.AvroSerializer;
 public class EventServiceImpl implements EventService {
 
     private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final PipelineTracer tracer;
 
     @Value("${collector.topics.sensors}")
     private String sensorsTopic;
@@ -22,9 +27,24 @@ public class EventServiceImpl implements EventService {
     @Value("${collector.topics.hubs}")
     private String hubsTopic;
 
+    /**
+     * События датчиков ключуются по хабу, а не по датчику: все события хаба попадают в одну партицию,
+     * и его снапшот целиком собирает один экземпляр агрегатора
+     */
     public void sendSensorEvent(SensorEventAvro sensorEvent) {
         byte[] payload = AvroSerializer.serialize(sensorEvent);
-        kafkaTemplate.send(sensorsTopic, sensorEvent.getId(), payload);
+        kafkaTemplate.send(sensorsTopic, sensorEvent.getHubId(), payload);
+    }
+
+    public void sendSensorEvent(SensorEventAvro sensorEvent, TraceContext trace) {
+        byte[] payload = AvroSerializer.serialize(sensorEvent);
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(sensorsTopic, sensorEvent.getHubId(), payload);
+        trace.writeTo(record.headers());
+        kafkaTemplate.send(record).whenComplete((result, e) -> {
+            if (e == null) {
+                tracer.recordSinceIngest(PipelineStage.INGEST, trace);
+            }
+        });
     }
 
     public void sendHubEvent(HubEventAvro hubEvent) {
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.consumer;
+
+/**
+ * Размер пачки, который укладывается в целевое время обработки: оценка времени на запись
+ * сглаживается экспоненциально, чтобы одна медленная запись не обрушивала размер пачки.
+ */
+final class AdaptiveBatchSize {
+
+    private static final double SMOOTHING = 0.2;
+
+    private final int min;
+    private final int max;
+    private final long targetNanos;
+    private double nanosPerRecord;
+    private volatile int limit;
+
+    AdaptiveBatchSize(int min, int max, long targetNanos) {
+        this.min = min;
+        this.max = max;
+        this.targetNanos = targetNanos;
+        this.limit = max;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    void record(int records, long elapsedNanos) {
+        if (records == 0) {
+            return;
+        }
+        double sample = (double) elapsedNanos / records;
+        nanosPerRecord = nanosPerRecord == 0 ? sample : nanosPerRecord + SMOOTHING * (sample - nanosPerRecord);
+        long fits = (long) (targetNanos / Math.max(nanosPerRecord, 1));
+        limit = (int) Math.max(min, Math.min(max, fits));
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.consumer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Готовность по отставанию потребителей: OUT_OF_SERVICE, если хотя бы один цикл отстал больше
+ * telemetry.consumer.max-ready-lag. Подключается в группу readiness через management.endpoint.health.group.
+ */
+@Component("kafkaConsumerLag")
+@RequiredArgsConstructor
+public class ConsumerLagHealthIndicator implements HealthIndicator {
+
+    private final ConsumerMetrics consumerMetrics;
+    private final ConsumerProperties properties;
+
+    @Override
+    public Health health() {
+        Map<String, Long> lagByLoop = new LinkedHashMap<>();
+        boolean lagging = false;
+        for (ConsumerLoop loop : consumerMetrics.loops()) {
+            long lag = loop.totalLag();
+            lagByLoop.put(loop.name(), lag);
+            lagging |= lag > properties.getMaxReadyLag();
+        }
+        Health.Builder builder = lagging ? Health.outOfService() : Health.up();
+        return builder
+                .withDetail("maxReadyLag", properties.getMaxReadyLag())
+                .withDetail("lag", lagByLoop)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запускает циклы опроса после поднятия контекста и останавливает их первыми при закрытии:
+ * wakeup, дообработка текущей записи, финальный коммит — всё в пределах telemetry.consumer.shutdown-timeout.
+ * Бины, которыми пользуются циклы (репозитории, gRPC-каналы), закрываются уже после этого.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConsumerLifecycle implements SmartLifecycle {
+
+    private final ObjectProvider<ConsumerTask> tasks;
+    private final ConsumerRunnerFactory consumerRunners;
+    private final ConsumerProperties properties;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        tasks.orderedStream().forEach(task ->
+                threads.add(Thread.ofPlatform().name("consumer-" + task.name()).start(task::run)));
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        Duration timeout = properties.getShutdownTimeout();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        consumerRunners.stopAll();
+        try {
+            for (Thread thread : threads) {
+                long remaining = Math.max(deadline - System.nanoTime(), 1);
+                if (!thread.join(Duration.ofNanos(remaining))) {
+                    log.warn("Consumer thread {} did not stop within {}", thread.getName(), timeout);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        threads.clear();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
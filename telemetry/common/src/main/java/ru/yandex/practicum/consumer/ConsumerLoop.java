@@ -0,0 +1,136 @@
+package ru.yandex.practicum.consumer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Метрики одного цикла опроса KafkaConsumer.
+ * Все методы, кроме чтения отставания, вызываются из потока цикла: KafkaConsumer не потокобезопасен.
+ */
+@Slf4j
+class ConsumerLoop {
+
+    private static final String PREFIX = "telemetry.consumer.";
+
+    private final String name;
+    private final Consumer<?, ?> consumer;
+    private final MeterRegistry registry;
+    private final Timer poll;
+    private final DistributionSummary records;
+    private final Timer process;
+    private final Map<TopicPartition, Gauge> lagGauges = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, AtomicLong> lag = new ConcurrentHashMap<>();
+
+    ConsumerLoop(String name, Consumer<?, ?> consumer, MeterRegistry registry) {
+        this.name = name;
+        this.consumer = consumer;
+        this.registry = registry;
+        this.poll = Timer.builder(PREFIX + "poll")
+                .description("Длительность вызова poll")
+                .tag("loop", name)
+                .register(registry);
+        this.records = DistributionSummary.builder(PREFIX + "records")
+                .description("Записей за один poll")
+                .tag("loop", name)
+                .register(registry);
+        this.process = Timer.builder(PREFIX + "process")
+                .description("Обработка одной записи")
+                .tag("loop", name)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * Фиксирует poll и обновляет отставание назначенных партиций по позиции, известной самому потребителю.
+     */
+    void recordPoll(long startNanos, int recordCount) {
+        poll.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        records.record(recordCount);
+        refreshLag();
+    }
+
+    void recordProcessing(long startNanos) {
+        process.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Колбэк для commitAsync: время считается от создания колбэка до ответа брокера.
+     */
+    OffsetCommitCallback commitCallback() {
+        long startNanos = System.nanoTime();
+        return (offsets, exception) -> {
+            recordCommit("async", startNanos, exception == null);
+            if (exception != null) {
+                log.warn("Async commit failed in loop {}: {}", name, exception.getMessage());
+            }
+        };
+    }
+
+    void recordCommit(String mode, long startNanos, boolean success) {
+        Timer.builder(PREFIX + "commit")
+                .description("Коммит смещений")
+                .tags(Tags.of("loop", name, "mode", mode, "result", success ? "success" : "failure"))
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void registerBatchLimit(IntSupplier limit) {
+        Gauge.builder(PREFIX + "batch.limit", limit, IntSupplier::getAsInt)
+                .description("Текущий предел записей за пачку в адаптивном режиме")
+                .tag("loop", name)
+                .register(registry);
+    }
+
+    /**
+     * Суммарное отставание по назначенным партициям на момент последнего poll.
+     */
+    long totalLag() {
+        return lag.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    private void refreshLag() {
+        Set<TopicPartition> assignment = consumer.assignment();
+        for (TopicPartition partition : assignment) {
+            OptionalLong current = consumer.currentLag(partition);
+            if (current.isPresent()) {
+                lag.computeIfAbsent(partition, this::registerLagGauge).set(current.getAsLong());
+            }
+        }
+        // После ребалансировки отставание отданных партиций считает их новый владелец
+        lag.keySet().removeIf(partition -> {
+            if (assignment.contains(partition)) {
+                return false;
+            }
+            registry.remove(lagGauges.remove(partition));
+            return true;
+        });
+    }
+
+    private AtomicLong registerLagGauge(TopicPartition partition) {
+        AtomicLong value = new AtomicLong();
+        lagGauges.put(partition, Gauge.builder(PREFIX + "lag", value, AtomicLong::get)
+                .description("Отставание потребителя по партиции")
+                .tags("loop", name, "topic", partition.topic(), "partition", String.valueOf(partition.partition()))
+                .register(registry));
+        return value;
+    }
+}
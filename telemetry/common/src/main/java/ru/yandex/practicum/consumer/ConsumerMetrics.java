@@ -0,0 +1,31 @@
+package ru.yandex.practicum.consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр циклов опроса Kafka сервиса: выдаёт каждому циклу его метрики и отдаёт их проверке готовности.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConsumerMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, ConsumerLoop> loops = new ConcurrentHashMap<>();
+
+    ConsumerLoop register(String name, Consumer<?, ?> consumer) {
+        ConsumerLoop loop = new ConsumerLoop(name, consumer, registry);
+        loops.put(name, loop);
+        return loop;
+    }
+
+    Collection<ConsumerLoop> loops() {
+        return loops.values();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.consumer;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки циклов опроса Kafka: поимённо в loops, циклы без записи получают значения по умолчанию.
+ */
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "telemetry.consumer")
+public class ConsumerProperties {
+
+    /** Суммарное отставание по партициям одного цикла, выше которого сервис перестаёт быть ready */
+    long maxReadyLag = 10_000;
+
+    /** Сколько ждать остановки всех циклов при закрытии контекста, включая финальный коммит */
+    Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    Map<String, Loop> loops = new HashMap<>();
+
+    public Loop loop(String name) {
+        return loops.getOrDefault(name, new Loop());
+    }
+
+    @Getter
+    @Setter
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Loop {
+
+        Duration pollTimeout = Duration.ofMillis(100);
+
+        /** max.poll.records; в адаптивном режиме — верхняя граница пачки */
+        int maxPollRecords = 500;
+
+        int fetchMinBytes = 1;
+
+        Duration fetchMaxWait = Duration.ofMillis(500);
+
+        /** max.poll.interval.ms; пачка прерывается, если её обработка заняла половину этого времени */
+        Duration maxPollInterval = Duration.ofMinutes(5);
+
+        /** Подбирать размер пачки по измеренному времени обработки записи */
+        boolean adaptive = false;
+
+        int minPollRecords = 10;
+
+        /** Желаемое время обработки одной пачки в адаптивном режиме */
+        Duration targetBatchTime = Duration.ofSeconds(1);
+    }
+}
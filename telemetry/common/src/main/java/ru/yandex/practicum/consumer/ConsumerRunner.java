@@ -0,0 +1,254 @@
+package ru.yandex.practicum.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Общий цикл опроса KafkaConsumer: poll, обработка записей по одной, асинхронный коммит после пачки
+ * и синхронный при выходе. Коммитятся только смещения обработанных записей, поэтому ни ошибка обработчика,
+ * ни остановка посреди пачки не помечают необработанный хвост прочитанным.
+ */
+@Slf4j
+public class ConsumerRunner<K, V> {
+
+    private final String name;
+    private final KafkaConsumer<K, V> consumer;
+    private final ConsumerProperties.Loop settings;
+    private final ConsumerLoop metrics;
+    private final AdaptiveBatchSize batchSize;
+    private final long batchBudgetNanos;
+    private final Duration shutdownTimeout;
+    private final Map<TopicPartition, OffsetAndMetadata> processed = new HashMap<>();
+
+    /**
+     * Прочитанные, но не обработанные из-за лимита пачки записи. Их партиции на паузе, пока хвост не разобран:
+     * так уже полученные записи не выбрасываются и не перечитываются с брокера.
+     */
+    private final Map<TopicPartition, Deque<ConsumerRecord<K, V>>> pending = new LinkedHashMap<>();
+    private ConsumerRebalanceListener rebalanceListener = new ConsumerRebalanceListener() {
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        }
+    };
+    private Runnable beforeSyncCommit = () -> {
+    };
+    private volatile boolean stopping;
+
+    ConsumerRunner(String name, KafkaConsumer<K, V> consumer, ConsumerProperties.Loop settings,
+                   ConsumerLoop metrics, AdaptiveBatchSize batchSize, Duration shutdownTimeout) {
+        this.name = name;
+        this.consumer = consumer;
+        this.settings = settings;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.batchBudgetNanos = settings.getMaxPollInterval().toNanos() / 2;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler<K, V> {
+        void handle(ConsumerRecord<K, V> record);
+    }
+
+    /**
+     * Слушатель ребаланса сервиса. Вызывается в потоке цикла после того, как смещения отзываемых партиций
+     * закоммичены, поэтому сервис может сразу выбросить состояние, привязанное к этим партициям.
+     */
+    public ConsumerRunner<K, V> onRebalance(ConsumerRebalanceListener listener) {
+        this.rebalanceListener = listener;
+        return this;
+    }
+
+    public void run(String topic, RecordHandler<K, V> handler) {
+        run(topic, handler, () -> {
+        });
+    }
+
+    /**
+     * Подписывается на топик и опрашивает его в текущем потоке до stop() или ошибки обработчика.
+     *
+     * @param beforeSyncCommit выполняется перед синхронными коммитами - финальным и при отзыве партиций,
+     *                         например сброс продюсера; если он упал, смещения не коммитятся
+     */
+    public void run(String topic, RecordHandler<K, V> handler, Runnable beforeSyncCommit) {
+        log.info("Starting consumer loop {}. Subscribing to topic: {}", name, topic);
+        this.beforeSyncCommit = beforeSyncCommit;
+        try {
+            consumer.subscribe(Collections.singletonList(topic), new CommittingRebalanceListener());
+            while (!stopping) {
+                pollOnce(handler);
+            }
+        } catch (WakeupException ignored) {
+            log.info("Consumer loop {} stopped via wakeup", name);
+        } catch (Exception e) {
+            log.error("Error in consumer loop {}: ", name, e);
+        } finally {
+            try {
+                beforeSyncCommit.run();
+                commitFinal();
+            } catch (Exception e) {
+                log.warn("Final commit skipped in loop {}: {}", name, e.getMessage());
+            } finally {
+                consumer.close(shutdownTimeout);
+                log.info("Consumer loop {} closed", name);
+            }
+        }
+    }
+
+    /**
+     * Просит цикл остановиться: текущая запись дорабатывается, отложенный хвост остаётся незакоммиченным.
+     * Вызывается из любого потока.
+     */
+    public void stop() {
+        stopping = true;
+        consumer.wakeup();
+    }
+
+    private void pollOnce(RecordHandler<K, V> handler) {
+        long pollStart = System.nanoTime();
+        // Пока есть отложенный хвост, poll не ждёт новых записей: он нужен для heartbeat и ребаланса
+        ConsumerRecords<K, V> records = consumer.poll(pending.isEmpty() ? settings.getPollTimeout() : Duration.ZERO);
+        metrics.recordPoll(pollStart, records.count());
+        for (TopicPartition partition : records.partitions()) {
+            pending.computeIfAbsent(partition, p -> new ArrayDeque<>()).addAll(records.records(partition));
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.debug("Processing {} new records in loop {}, {} partitions pending", records.count(), name, pending.size());
+
+        int limit = batchSize != null ? batchSize.limit() : Integer.MAX_VALUE;
+        long batchStart = System.nanoTime();
+        int count = 0;
+        Iterator<Map.Entry<TopicPartition, Deque<ConsumerRecord<K, V>>>> partitions = pending.entrySet().iterator();
+        while (partitions.hasNext()) {
+            Map.Entry<TopicPartition, Deque<ConsumerRecord<K, V>>> entry = partitions.next();
+            Deque<ConsumerRecord<K, V>> partitionRecords = entry.getValue();
+            while (!partitionRecords.isEmpty()
+                    && !(stopping || count >= limit || System.nanoTime() - batchStart > batchBudgetNanos)) {
+                ConsumerRecord<K, V> record = partitionRecords.poll();
+                long recordStart = System.nanoTime();
+                handler.handle(record);
+                metrics.recordProcessing(recordStart);
+                processed.put(entry.getKey(), new OffsetAndMetadata(record.offset() + 1));
+                count++;
+            }
+            if (partitionRecords.isEmpty()) {
+                partitions.remove();
+            }
+        }
+        updatePaused();
+
+        if (batchSize != null) {
+            batchSize.record(count, System.nanoTime() - batchStart);
+        }
+        if (count > 0) {
+            consumer.commitAsync(new HashMap<>(processed), metrics.commitCallback());
+        }
+    }
+
+    /**
+     * Партиции с необработанным хвостом ставятся на паузу, чтобы poll не читал их дальше хвоста;
+     * разобранные снимаются с паузы.
+     */
+    private void updatePaused() {
+        Set<TopicPartition> drained = new HashSet<>(consumer.paused());
+        drained.removeAll(pending.keySet());
+        if (!drained.isEmpty()) {
+            consumer.resume(drained);
+        }
+        if (!pending.isEmpty()) {
+            consumer.pause(pending.keySet());
+        }
+    }
+
+    /**
+     * Перед отзывом партиций коммитит обработанные по ним смещения, чтобы новый владелец
+     * не обработал их записи повторно. Потерянные партиции уже принадлежат другому, их смещения не коммитятся.
+     */
+    private class CommittingRebalanceListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                // Новый владелец начнёт с закоммиченного смещения и прочитает отложенный хвост сам
+                pending.remove(partition);
+                OffsetAndMetadata offset = processed.remove(partition);
+                if (offset != null) {
+                    offsets.put(partition, offset);
+                }
+            }
+            if (!offsets.isEmpty()) {
+                long commitStart = System.nanoTime();
+                try {
+                    beforeSyncCommit.run();
+                    consumer.commitSync(offsets, shutdownTimeout);
+                    metrics.recordCommit("sync", commitStart, true);
+                } catch (Exception e) {
+                    metrics.recordCommit("sync", commitStart, false);
+                    log.warn("Error committing revoked partitions {} in loop {}: {}", partitions, name, e.getMessage());
+                }
+            }
+            log.info("Partitions revoked from loop {}: {}", name, partitions);
+            rebalanceListener.onPartitionsRevoked(partitions);
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            partitions.forEach(processed::remove);
+            partitions.forEach(pending::remove);
+            log.warn("Partitions lost by loop {}: {}", name, partitions);
+            rebalanceListener.onPartitionsLost(partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            log.info("Partitions assigned to loop {}: {}", name, partitions);
+            rebalanceListener.onPartitionsAssigned(partitions);
+        }
+    }
+
+    private void commitFinal() {
+        if (processed.isEmpty()) {
+            return;
+        }
+        long commitStart = System.nanoTime();
+        try {
+            try {
+                consumer.commitSync(processed, shutdownTimeout);
+            } catch (WakeupException e) {
+                // wakeup, пришедший во время обработки записи, срабатывает на первом же блокирующем вызове
+                consumer.commitSync(processed, shutdownTimeout);
+            }
+            metrics.recordCommit("sync", commitStart, true);
+            // close() ещё раз отзовёт партиции - коммитить там уже нечего
+            processed.clear();
+        } catch (Exception e) {
+            metrics.recordCommit("sync", commitStart, false);
+            log.warn("Error during final commit in loop {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.consumer;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Создаёт циклы опроса: сервис задаёт адрес, группу и десериализаторы, настройки выборки
+ * берутся из telemetry.consumer.loops.&lt;имя цикла&gt;.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConsumerRunnerFactory {
+
+    private final ConsumerProperties properties;
+    private final ConsumerMetrics consumerMetrics;
+    private final List<ConsumerRunner<?, ?>> runners = new CopyOnWriteArrayList<>();
+    private volatile boolean stopping;
+
+    public <K, V> ConsumerRunner<K, V> create(String name, Properties consumerProps) {
+        ConsumerProperties.Loop settings = properties.loop(name);
+
+        Properties props = new Properties();
+        props.putAll(consumerProps);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, settings.getMaxPollRecords());
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, settings.getFetchMinBytes());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) settings.getFetchMaxWait().toMillis());
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, (int) settings.getMaxPollInterval().toMillis());
+
+        KafkaConsumer<K, V> consumer = new KafkaConsumer<>(props);
+        ConsumerLoop metrics = consumerMetrics.register(name, consumer);
+        AdaptiveBatchSize batchSize = null;
+        if (settings.isAdaptive()) {
+            batchSize = new AdaptiveBatchSize(settings.getMinPollRecords(), settings.getMaxPollRecords(),
+                    settings.getTargetBatchTime().toNanos());
+            metrics.registerBatchLimit(batchSize::limit);
+        }
+        ConsumerRunner<K, V> runner = new ConsumerRunner<>(name, consumer, settings, metrics, batchSize,
+                properties.getShutdownTimeout());
+        runners.add(runner);
+        // Цикл, созданный уже во время остановки, завершится, не начав опрос
+        if (stopping) {
+            runner.stop();
+        }
+        return runner;
+    }
+
+    void stopAll() {
+        stopping = true;
+        runners.forEach(ConsumerRunner::stop);
+    }
+}
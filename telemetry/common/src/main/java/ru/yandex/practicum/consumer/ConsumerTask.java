@@ -0,0 +1,13 @@
+package ru.yandex.practicum.consumer;
+
+/**
+ * Цикл опроса Kafka, который ConsumerLifecycle запускает в отдельном потоке при старте контекста.
+ */
+public interface ConsumerTask {
+
+    /** Имя цикла: по нему выбираются настройки telemetry.consumer.loops и теги метрик */
+    String name();
+
+    /** Блокирует поток до остановки цикла */
+    void run();
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.tracing;
+
+/**
+ * Этапы пути показания датчика от коллектора до действия в хабе.
+ */
+public enum PipelineStage {
+    /** Приём в коллекторе: от gRPC-вызова до подтверждения записи в Kafka */
+    INGEST,
+    /** Ожидание в топике: от отметки времени записи до её чтения потребителем */
+    KAFKA_LAG,
+    /** Обновление снапшота в агрегаторе */
+    AGGREGATION,
+    /** Загрузка и проверка сценариев хаба в анализаторе */
+    EVALUATION,
+    /** Вызов handleDeviceAction в hub-router */
+    DISPATCH,
+    /** Весь путь: от приёма в коллекторе до выполненного действия */
+    END_TO_END;
+
+    String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Гистограммы длительности этапов конвейера телеметрии для отобранных событий.
+ * Решение об отборе принимается один раз в коллекторе, дальше его несут заголовки Kafka.
+ */
+@Component
+public class PipelineTracer {
+
+    private static final String METRIC_NAME = "telemetry.pipeline.stage";
+
+    private final MeterRegistry registry;
+    private final TracingProperties properties;
+    private final Map<PipelineStage, Timer> timers = new EnumMap<>(PipelineStage.class);
+    private final Map<String, Timer> kafkaLagTimers = new ConcurrentHashMap<>();
+
+    public PipelineTracer(MeterRegistry registry, TracingProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+        for (PipelineStage stage : PipelineStage.values()) {
+            if (stage != PipelineStage.KAFKA_LAG) {
+                timers.put(stage, timer(stage, "none"));
+            }
+        }
+    }
+
+    /**
+     * Начинает трассировку с вероятностью telemetry.tracing.sample-rate.
+     */
+    public Optional<TraceContext> sample(Instant ingestedAt) {
+        if (!properties.isEnabled() || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return Optional.empty();
+        }
+        return Optional.of(TraceContext.start(ingestedAt));
+    }
+
+    public void recordSince(PipelineStage stage, long startNanos) {
+        timers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Время в топике по отметке времени записи; отрицательное из-за расхождения часов считается нулём.
+     */
+    public void recordKafkaLag(String topic, long recordTimestampMillis) {
+        long lagMillis = Math.max(0, System.currentTimeMillis() - recordTimestampMillis);
+        kafkaLagTimers.computeIfAbsent(topic, t -> timer(PipelineStage.KAFKA_LAG, t))
+                .record(lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Время от приёма события в коллекторе по часам этого узла: для этапа приёма и для всего пути.
+     */
+    public void recordSinceIngest(PipelineStage stage, TraceContext trace) {
+        long micros = Math.max(0, TraceContext.epochMicros(Instant.now()) - trace.ingestedAtMicros());
+        timers.get(stage).record(micros, TimeUnit.MICROSECONDS);
+    }
+
+    private Timer timer(PipelineStage stage, String topic) {
+        return Timer.builder(METRIC_NAME)
+                .description("Длительность этапа конвейера телеметрии для отобранных событий")
+                .tag("stage", stage.tag())
+                .tag("topic", topic)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.tracing;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Контекст трассировки показания датчика, передаваемый в заголовках Kafka.
+ * Заголовки есть только у отобранных событий, остальные сообщения не меняются.
+ */
+public record TraceContext(long traceId, long ingestedAtMicros) {
+
+    public static final String TRACE_ID_HEADER = "trace-id";
+    public static final String INGESTED_AT_HEADER = "trace-ingested-at";
+
+    static TraceContext start(Instant ingestedAt) {
+        return new TraceContext(ThreadLocalRandom.current().nextLong(), epochMicros(ingestedAt));
+    }
+
+    static long epochMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+    public static Optional<TraceContext> from(Headers headers) {
+        Header traceId = headers.lastHeader(TRACE_ID_HEADER);
+        Header ingestedAt = headers.lastHeader(INGESTED_AT_HEADER);
+        if (traceId == null || ingestedAt == null
+                || traceId.value().length != Long.BYTES || ingestedAt.value().length != Long.BYTES) {
+            return Optional.empty();
+        }
+        return Optional.of(new TraceContext(ByteBuffer.wrap(traceId.value()).getLong(),
+                ByteBuffer.wrap(ingestedAt.value()).getLong()));
+    }
+
+    public void writeTo(Headers headers) {
+        headers.remove(TRACE_ID_HEADER).add(TRACE_ID_HEADER, toBytes(traceId));
+        headers.remove(INGESTED_AT_HEADER).add(INGESTED_AT_HEADER, toBytes(ingestedAtMicros));
+    }
+
+    public String traceIdHex() {
+        return Long.toHexString(traceId);
+    }
+
+    private static byte[] toBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.tracing;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "telemetry.tracing")
+public class TracingProperties {
+
+    boolean enabled = true;
+
+    /** Доля событий, для которых в коллекторе начинается трассировка, от 0 до 1 */
+    double sampleRate = 0.01;
+}